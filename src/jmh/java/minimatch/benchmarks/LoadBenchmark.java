@@ -0,0 +1,114 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import minimatch.PatternSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup cost of a rule set of the given size: compiling the patterns
+ * versus reading the set written by {@link PatternSet#writeTo(OutputStream)},
+ * from a heap buffer or from a memory-mapped file.
+ * 
+ * <pre>
+ * mvn -P jmh test-compile exec:exec -Djmh.args="LoadBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("nls")
+public class LoadBenchmark {
+
+	private static final String[] SHAPES = { "src/m%d/**/*.java",
+			"lib%d/*.{js,ts}", "test/*test%d*", "!build%d/**", "docs/[a-z]*%d.md",
+			"+(a|b)%d/*", "**/*.@(png|jpg)%d", "a/{b,c}%d/d" };
+
+	@Param({ "100", "1000", "10000" })
+	public int count;
+
+	private List<String> patterns;
+	private byte[] bytes;
+	private Path file;
+
+	@Setup
+	public void setup() throws IOException {
+		patterns = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			patterns.add(String.format(SHAPES[i % SHAPES.length], i));
+		}
+		file = Files.createTempFile("patterns", ".bin");
+		OutputStream out = Files.newOutputStream(file);
+		try {
+			new PatternSet(patterns).writeTo(out);
+		} finally {
+			out.close();
+		}
+		bytes = Files.readAllBytes(file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(file);
+	}
+
+	@Benchmark
+	public PatternSet compile() {
+		return new PatternSet(patterns);
+	}
+
+	@Benchmark
+	public PatternSet read() throws IOException {
+		return PatternSet.read(ByteBuffer.wrap(bytes));
+	}
+
+	@Benchmark
+	public PatternSet load() throws IOException {
+		return PatternSet.load(file);
+	}
+}
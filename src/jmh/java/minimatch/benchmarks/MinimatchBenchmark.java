@@ -0,0 +1,182 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.internal.adapters.DefaultPathAdapter;
+import minimatch.isaacs.Patterns;
+import minimatch.isaacs.Patterns.Case;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the parse, compile and match paths. The corpus is the one of
+ * {@link Patterns}, the translation of the tests of Node.js' minimatch.
+ * 
+ * Run them with the jmh profile, which adds the gc profiler to report the
+ * allocation rate of each benchmark:
+ * 
+ * <pre>
+ * mvn -P jmh test-compile exec:exec
+ * mvn -P jmh test-compile exec:exec -Djmh.args="-prof gc MinimatchBenchmark.match"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("nls")
+public class MinimatchBenchmark {
+
+	private static final String PATH = "src/main/java/minimatch/internal/parser/MagicItem.java";
+
+	private Case[] corpus;
+	private Minimatch[] compiled;
+	private Options[] lazyOptions;
+
+	private Minimatch literal;
+	private Minimatch star;
+	private Minimatch extglob;
+	private Minimatch globstar;
+	private Minimatch globstarAutomaton;
+
+	private String[] batch;
+	private boolean[] results;
+
+	@Setup
+	public void setup() {
+		List<Case> cases = Patterns.corpus();
+		corpus = cases.toArray(new Case[cases.size()]);
+		compiled = new Minimatch[corpus.length];
+		lazyOptions = new Options[corpus.length];
+		for (int i = 0; i < corpus.length; i++) {
+			compiled[i] = new Minimatch(corpus[i].pattern, corpus[i].options);
+			lazyOptions[i] = new Options(corpus[i].options).setLazy(true).snapshot();
+		}
+		literal = new Minimatch(PATH);
+		star = new Minimatch("src/main/java/*/*/*/*.java");
+		extglob = new Minimatch("src/+(main|test)/java/**/*.@(java|class)");
+		globstar = new Minimatch("src/**/internal/**/*.java");
+		globstarAutomaton = new Minimatch("src/**/internal/**/*.java",
+				new Options().setAutomaton(true));
+		batch = new String[1000];
+		for (int i = 0; i < batch.length; i++) {
+			batch[i] = "src/" + (i % 2 == 0 ? "main" : "test") + "/java/p" + i % 7
+					+ "/internal/C" + i + (i % 3 == 0 ? ".java" : ".class");
+		}
+		results = new boolean[batch.length];
+	}
+
+	@Benchmark
+	public void compile(Blackhole bh) {
+		for (Case c : corpus) {
+			bh.consume(new Minimatch(c.pattern, c.options));
+		}
+	}
+
+	@Benchmark
+	public void compileLazy(Blackhole bh) {
+		for (int i = 0; i < corpus.length; i++) {
+			bh.consume(new Minimatch(corpus[i].pattern, lazyOptions[i]));
+		}
+	}
+
+	@Benchmark
+	public void matchCorpus(Blackhole bh) {
+		for (int i = 0; i < compiled.length; i++) {
+			Minimatch mm = compiled[i];
+			for (String file : corpus[i].files) {
+				bh.consume(mm.match(file));
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean matchLiteral() {
+		return literal.match(PATH);
+	}
+
+	@Benchmark
+	public boolean matchStar() {
+		return star.match(PATH);
+	}
+
+	@Benchmark
+	public boolean matchExtglob() {
+		return extglob.match(PATH);
+	}
+
+	@Benchmark
+	public boolean matchGlobstar() {
+		return globstar.match(PATH);
+	}
+
+	@Benchmark
+	public boolean matchGlobstarAutomaton() {
+		return globstarAutomaton.match(PATH);
+	}
+
+	@Benchmark
+	public void matchBatchOneByOne(Blackhole bh) {
+		for (String path : batch) {
+			bh.consume(globstar.match(path));
+		}
+	}
+
+	@Benchmark
+	public boolean[] matchBatch() {
+		globstar.matchAll(batch, results);
+		return results;
+	}
+
+	@Benchmark
+	public void staticMinimatch(Blackhole bh) {
+		for (Case c : corpus) {
+			for (String file : c.files) {
+				bh.consume(Minimatch.minimatch(file, c.pattern, c.options));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<String> toArray() {
+		return DefaultPathAdapter.INSTANCE.toArray(PATH, Options.DEFAULT);
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import minimatch.Minimatch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compile time of a segment by pattern length: the pattern repeats a piece
+ * of the given shape up to the given length, the time must grow linearly
+ * with it. Negative extglobs aren't measured: the regular expression of
+ * each one looks ahead to the end of the segment, so it grows with the
+ * square of their number by design.
+ * 
+ * <pre>
+ * mvn -P jmh test-compile exec:exec -Djmh.args="ParseBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("nls")
+public class ParseBenchmark {
+
+	@Param({ "64", "1024", "16384" })
+	public int length;
+
+	@Param({ "ab*", "x?[ab]", "+(a|b)", "c\\*d" })
+	public String piece;
+
+	private String pattern;
+
+	@Setup
+	public void setup() {
+		StringBuilder pattern = new StringBuilder(length + piece.length());
+		while (pattern.length() < length) {
+			pattern.append(piece);
+		}
+		this.pattern = pattern.toString();
+	}
+
+	@Benchmark
+	public Minimatch compile() {
+		return new Minimatch(pattern);
+	}
+}
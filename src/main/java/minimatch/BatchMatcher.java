@@ -0,0 +1,174 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.util.List;
+
+import minimatch.internal.adapters.PathSegments;
+import minimatch.internal.parser.GlobStar;
+import minimatch.internal.parser.ParseItem;
+
+/**
+ * Matches the paths of a batch with one {@link Minimatch}, reusing the
+ * results of the leading segments a path has in common with the previous
+ * one. For each entry of the set, the number of leading segments matched by
+ * its items before the first globstar is kept: in a sorted listing like
+ * a/b/c/1.txt, a/b/c/2.txt... only the differing tail segments are matched.
+ */
+class BatchMatcher {
+
+	private final Minimatch minimatch;
+	private final List<List<ParseItem>> set;
+	private final boolean matchBase;
+	private final boolean flipNegate;
+
+	// for each entry, the number of leading segments of the previous path
+	// matched by its leading items, and whether the next item failed
+	private final int[] matched;
+	private final boolean[] failed;
+
+	// the segments of the previous path
+	private CharSequence previous;
+	private int[] bounds = new int[16];
+	private int size = -1;
+
+	BatchMatcher(Minimatch minimatch) {
+		this.minimatch = minimatch;
+		this.set = minimatch.getSet();
+		this.matchBase = minimatch.options.isMatchBase();
+		this.flipNegate = minimatch.options.isFlipNegate();
+		this.matched = new int[set.size()];
+		this.failed = new boolean[set.size()];
+	}
+
+	/**
+	 * Returns the same result as {@link Minimatch#match(String)} for the
+	 * given segments.
+	 */
+	boolean match(PathSegments file) {
+		int common = commonSegments(file);
+		remember(file);
+		int filename = -1;
+		boolean hit = false;
+		int i = 0;
+		for (; i < set.size() && !hit; i++) {
+			List<ParseItem> pattern = set.get(i);
+			if (matchBase && pattern.size() == 1) {
+				if (filename == -1) {
+					filename = Minimatch.basename(file);
+				}
+				hit = minimatch.matchOne(file, filename, filename + 1, pattern,
+						0, Minimatch.EXACT);
+			} else {
+				hit = matchEntry(i, pattern, file, common);
+			}
+		}
+		// the entries after the hit are not matched against this path: their
+		// state is the one of an older path.
+		for (; i < set.size(); i++) {
+			matched[i] = 0;
+			failed[i] = false;
+		}
+		if (hit) {
+			return flipNegate || !minimatch.negate;
+		}
+		return !flipNegate && minimatch.negate;
+	}
+
+	private boolean matchEntry(int entry, List<ParseItem> pattern,
+			PathSegments file, int common) {
+		int start = Math.min(common, matched[entry]);
+		if (failed[entry] && matched[entry] < common) {
+			// the segment which failed is the same
+			return false;
+		}
+		int fl = file.size();
+		int pl = pattern.size();
+		int i = start;
+		boolean failure = false;
+		for (; i < fl && i < pl; i++) {
+			ParseItem p = pattern.get(i);
+			if (p == null || p instanceof GlobStar) {
+				break;
+			}
+			if (!p.match(file.getSource(i), file.getStart(i), file.getEnd(i),
+					minimatch.options)) {
+				failure = true;
+				break;
+			}
+		}
+		matched[entry] = i;
+		failed[entry] = failure;
+		return !failure
+				&& minimatch.matchOne(file, i, fl, pattern, i, Minimatch.EXACT);
+	}
+
+	// the number of leading segments equal to the ones of the previous path
+	private int commonSegments(PathSegments file) {
+		int common = 0;
+		int n = Math.min(size, file.size());
+		for (; common < n; common++) {
+			int start = bounds[common * 2];
+			int length = bounds[common * 2 + 1] - start;
+			if (length != file.length(common)
+					|| !regionMatches(previous, start, file.getSource(common),
+							file.getStart(common), length)) {
+				break;
+			}
+		}
+		return common;
+	}
+
+	private static boolean regionMatches(CharSequence a, int aStart,
+			CharSequence b, int bStart, int length) {
+		for (int i = 0; i < length; i++) {
+			if (a.charAt(aStart + i) != b.charAt(bStart + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void remember(PathSegments file) {
+		int n = file.size();
+		if (bounds.length < n * 2) {
+			bounds = new int[n * 4];
+		}
+		CharSequence source = null;
+		for (int i = 0; i < n; i++) {
+			if (source == null) {
+				source = file.getSource(i);
+			} else if (source != file.getSource(i)) {
+				// segments from a list: don't share anything with the next
+				// path
+				size = -1;
+				return;
+			}
+			bounds[i * 2] = file.getStart(i);
+			bounds[i * 2 + 1] = file.getEnd(i);
+		}
+		previous = source;
+		size = n;
+	}
+}
@@ -0,0 +1,210 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import minimatch.internal.parser.ContainsItem;
+import minimatch.internal.parser.GlobStar;
+import minimatch.internal.parser.LiteralItem;
+import minimatch.internal.parser.ParseItem;
+import minimatch.internal.parser.PrefixItem;
+import minimatch.internal.parser.SuffixItem;
+
+/**
+ * Cheap checks on the path string that an entry of the set derives from its
+ * items, to reject most paths before they are split in segments: the
+ * leading literal segments, the minimum and maximum number of segments, the
+ * literal end of the path and the literals it must contain.
+ */
+class EntryFilter {
+
+	private final boolean allowWindowsPaths;
+	private final String[] prefix;
+	private final int minSegments;
+	private final int maxSegments;
+	private final String suffix;
+	private final String[] literals;
+
+	EntryFilter(List<ParseItem> entry, Options options) {
+		this.allowWindowsPaths = options.isAllowWindowsPaths();
+		boolean nocase = options.isNocase();
+		int size = entry.size();
+		int min = 0;
+		boolean globstar = false;
+		for (ParseItem item : entry) {
+			if (item instanceof GlobStar) {
+				globstar = true;
+			} else {
+				min++;
+			}
+		}
+		this.minSegments = min;
+		this.maxSegments = globstar ? Integer.MAX_VALUE : size;
+
+		int prefixLength = 0;
+		while (!nocase && prefixLength < size
+				&& entry.get(prefixLength) instanceof LiteralItem) {
+			prefixLength++;
+		}
+		this.prefix = new String[prefixLength];
+		for (int i = 0; i < prefixLength; i++) {
+			prefix[i] = entry.get(i).getSource();
+		}
+
+		String suffix = null;
+		ParseItem last = entry.isEmpty() ? null : entry.get(size - 1);
+		if (!nocase) {
+			if (last instanceof LiteralItem) {
+				suffix = last.getSource();
+			} else if (last instanceof SuffixItem) {
+				suffix = ((SuffixItem) last).getSuffix();
+			}
+		}
+		this.suffix = suffix == null || suffix.isEmpty() ? null : suffix;
+
+		Set<String> literals = new LinkedHashSet<String>();
+		for (int i = prefixLength; !nocase && i < size - 1; i++) {
+			String literal = literal(entry.get(i));
+			if (literal != null && !literal.isEmpty()) {
+				literals.add(literal);
+			}
+		}
+		this.literals = literals.toArray(new String[literals.size()]);
+	}
+
+	private static String literal(ParseItem item) {
+		if (item instanceof LiteralItem) {
+			return item.getSource();
+		}
+		if (item instanceof PrefixItem) {
+			return ((PrefixItem) item).getPrefix();
+		}
+		if (item instanceof SuffixItem) {
+			return ((SuffixItem) item).getSuffix();
+		}
+		if (item instanceof ContainsItem) {
+			return ((ContainsItem) item).getLiteral();
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the filters of the entries of a set, or returns null when one
+	 * entry can't reject anything: a single segment matched against the
+	 * basename with matchBase.
+	 */
+	static EntryFilter[] create(List<List<ParseItem>> set, Options options) {
+		List<EntryFilter> filters = new ArrayList<EntryFilter>(set.size());
+		for (List<ParseItem> entry : set) {
+			if (options.isMatchBase() && entry.size() == 1) {
+				return null;
+			}
+			filters.add(new EntryFilter(entry, options));
+		}
+		return filters.toArray(new EntryFilter[filters.size()]);
+	}
+
+	/**
+	 * Returns the number of segments of the path, like
+	 * {@link minimatch.internal.adapters.PathSegments#reset(CharSequence, boolean)}
+	 * splits it.
+	 */
+	static int countSegments(String path, boolean allowWindowsPaths) {
+		int segments = 1;
+		int length = path.length();
+		for (int i = 0; i < length; i++) {
+			if (isSeparator(path.charAt(i), allowWindowsPaths)) {
+				segments++;
+				while (i + 1 < length
+						&& isSeparator(path.charAt(i + 1), allowWindowsPaths)) {
+					i++;
+				}
+			}
+		}
+		return segments;
+	}
+
+	/**
+	 * Returns false if the entry can't match the path, which has the given
+	 * number of segments.
+	 */
+	boolean accept(String path, int segments) {
+		// a/b/ matches a/b: the pattern can end before a trailing separator
+		int end = path.length();
+		while (end > 0 && isSeparator(path.charAt(end - 1), allowWindowsPaths)) {
+			end--;
+		}
+		int max = end < path.length() && maxSegments != Integer.MAX_VALUE ? maxSegments + 1
+				: maxSegments;
+		if (segments < minSegments || segments > max) {
+			return false;
+		}
+		if (suffix != null && !path.startsWith(suffix, end - suffix.length())
+				&& !path.endsWith(suffix)) {
+			return false;
+		}
+		if (!acceptPrefix(path)) {
+			return false;
+		}
+		for (String literal : literals) {
+			if (path.indexOf(literal) == -1) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean acceptPrefix(String path) {
+		int length = path.length();
+		int pos = 0;
+		for (int i = 0; i < prefix.length; i++) {
+			if (i > 0) {
+				// the separators after the previous segment
+				if (pos == length) {
+					return false;
+				}
+				while (pos < length && isSeparator(path.charAt(pos), allowWindowsPaths)) {
+					pos++;
+				}
+			}
+			String segment = prefix[i];
+			if (!path.startsWith(segment, pos)) {
+				return false;
+			}
+			pos += segment.length();
+			if (pos < length && !isSeparator(path.charAt(pos), allowWindowsPaths)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSeparator(char c, boolean allowWindowsPaths) {
+		return c == '/' || (c == '\\' && allowWindowsPaths);
+	}
+}
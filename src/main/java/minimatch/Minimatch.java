@@ -23,18 +23,31 @@
  */
 package minimatch;
 
-import static minimatch.internal.StringUtils.matches;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collector;
 
+import minimatch.internal.BraceExpansion;
 import minimatch.internal.StringUtils;
 import minimatch.internal.adapters.DefaultPathAdapter;
+import minimatch.internal.adapters.PathSegments;
+import minimatch.internal.parser.AlternationItem;
+import minimatch.internal.parser.BracketExpression;
 import minimatch.internal.parser.GlobStar;
+import minimatch.internal.parser.LazyItem;
 import minimatch.internal.parser.LiteralItem;
 import minimatch.internal.parser.MagicItem;
 import minimatch.internal.parser.ParseContext;
@@ -44,11 +57,26 @@ import minimatch.internal.parser.PatternListItem;
 
 /**
  * Port of Node.js' https://github.com/isaacs/minimatch to Java.
- *
+ * 
+ * A Minimatch is immutable: the pattern is compiled once in the constructor
+ * with a snapshot of the options ({@link Options#snapshot()}), and matching
+ * uses no shared mutable state. One instance can be shared by any number of
+ * threads once safely published (a final or volatile field, a concurrent
+ * collection...).
  */
-public class Minimatch {
+public class Minimatch implements DirectoryPruner {
+
+	private static final GlobStar GLOBSTAR = GlobStar.INSTANCE;
 
-	private static final GlobStar GLOBSTAR = new GlobStar();
+	// modes of matchOne
+	static final int EXACT = 0;
+	static final int PARTIAL = 1;
+	static final int DESCENDANT = 2;
+
+	// states of a globstar memo cell, see matchOne
+	private static final byte UNKNOWN = 0;
+	private static final byte MATCH = 1;
+	private static final byte NO_MATCH = 2;
 
 	// any single thing other than /
 	// don't need to escape / when using new RegExp()
@@ -57,76 +85,151 @@ public class Minimatch {
 	// * => any number of characters
 	private final String STAR = QMARK + "*?";
 
-	// ** when dots are allowed.  Anything goes, except .. and .
-	// not (^ or / followed by one or two dots followed by $ or /),
-	// followed by anything, any number of times.
-	private final String TWO_STAR_DOT = "(?:(?!(?:\\/|^)(?:\\.{1,2})($|\\/)).)*?";
+	// a segment swallowed by ** when dots are allowed.  Anything goes,
+	// except .. and .
+	private final String TWO_STAR_DOT = "(?!\\.{1,2}(?:\\/|$))[^/]*";
 
-	// not a ^ or / followed by a dot,
-	// followed by anything, any number of times.
-	private final String TWO_STAR_NO_DOT = "(?:(?!(?:\\/|^)\\.).)*?'";
+	// a segment swallowed by **: not starting with a dot.
+	private final String TWO_STAR_NO_DOT = "(?!\\.)[^/]*";
 	
-	private final List<Character> reSpecials = StringUtils
-			.asList("().*{}+?[]^$\\!".toCharArray());
+	// characters that need to be escaped in RegExp.
+	private static final boolean[] RE_SPECIALS = new boolean[128];
+	static {
+		for (char c : "().*{}+?[]^$\\!".toCharArray()) {
+			RE_SPECIALS[c] = true;
+		}
+	}
+
+	// maybe some even number of \, then maybe 1 \, followed by a |
+	private static final Pattern PIPE = Pattern.compile("((?:\\\\{2})*)(\\\\?)\\|");
+	private static final Pattern OPEN_PAREN = Pattern.compile("\\(");
+	private static final Pattern CLOSE_PAREN = Pattern.compile("\\)[+*?]?");
 
 	private static final Pattern hasBraces = Pattern.compile("\\{.*\\}");
+
+	// compiled patterns used by the static minimatch() helper
+	private static final MinimatchCache CACHE = new MinimatchCache();
+	private static final SegmentInterner SEGMENTS = new SegmentInterner();
 	protected static final Pattern slashSplit = Pattern.compile("/+");
 
-	protected String pattern;
+	protected final String pattern;
 	protected final Options options;
-	protected boolean comment;
-	protected boolean empty;
-	protected boolean negate;
-
-	private List<List<ParseItem>> set;
+	protected final boolean comment;
+	protected final boolean empty;
+	protected final boolean negate;
+
+	private final List<List<ParseItem>> set;
+	// the cheap checks on the path string of each entry, null when they
+	// can't reject anything
+	private final EntryFilter[] filters;
+	// the whole set as one automaton over the path string, null unless the
+	// automaton option is set and the set allows it
+	private final PathAutomaton automaton;
+	// parses the segments deferred by the lazy option, null without it
+	private final Function<String, ParseItem> compiler;
+
+	// the options read while matching, final so that the checks are cheap
+	// and the debug calls are skipped without building their arguments.
+	private final boolean debug;
+	private final boolean dot;
+	private final boolean matchBase;
+	private final boolean flipNegate;
 
 	public Minimatch(String pattern) {
 		this(pattern, null);
 	}
 
+	/**
+	 * Compiles the pattern with a snapshot of the given options: a Minimatch
+	 * is immutable and can be shared between threads once safely published.
+	 * 
+	 * @param pattern
+	 * @param options
+	 *            the options, {@link Options#DEFAULT} when null.
+	 */
 	public Minimatch(String pattern, Options options) {
-		this.pattern = pattern.trim();
-		this.options = getOptions(options);
+		this.options = getOptions(options).snapshot();
+		this.debug = this.options.isDebug();
+		this.dot = this.options.isDot();
+		this.matchBase = this.options.isMatchBase();
+		this.flipNegate = this.options.isFlipNegate();
+		pattern = pattern.trim();
 
-		if (this.options.isAllowWindowsPaths()) {
-			pattern = StringUtils.replacePath(pattern);
-		}
-
-		// this.regexp = null
-		this.negate = false;
-		this.comment = false;
+		// empty patterns and comments match nothing.
+		this.comment = !this.options.isNocomment() && !pattern.isEmpty()
+				&& pattern.charAt(0) == '#';
 		this.empty = false;
 
+		// step 1: figure out negation, etc.
+		int negateOffset = this.comment ? 0 : negateOffset(pattern, this.options);
+		this.negate = negateOffset % 2 == 1;
+		this.pattern = pattern.substring(negateOffset);
+		this.compiler = this.options.isLazy() && !this.options.isAutomaton()
+				? this::compile : null;
+
 		// make the set of regexps etc.
-		this.make();
+		this.set = this.comment ? null : unmodifiable(this.make());
+		this.filters = this.set == null ? null : EntryFilter.create(this.set,
+				this.options);
+		this.automaton = this.set == null || !this.options.isAutomaton() ? null
+				: PathAutomaton.create(this.set, this.options);
 	}
 
-	private void make() {
-		// don't do it more than once.
-		// if (this._made) {
-		// return;
-		// }
-		String pattern = this.pattern;
-		Options options = this.options;
+	/**
+	 * Creates the minimatch of a set compiled earlier, read by
+	 * {@link PatternSetFormat}: nothing is parsed.
+	 * 
+	 * @param pattern
+	 *            the pattern without its negation.
+	 * @param options
+	 *            a snapshot of the options.
+	 * @param comment
+	 * @param negate
+	 * @param set
+	 *            the compiled set, null for a comment.
+	 */
+	Minimatch(String pattern, Options options, boolean comment,
+			boolean negate, List<List<ParseItem>> set) {
+		this.options = options;
+		this.debug = options.isDebug();
+		this.dot = options.isDot();
+		this.matchBase = options.isMatchBase();
+		this.flipNegate = options.isFlipNegate();
+		this.pattern = pattern;
+		this.comment = comment;
+		this.empty = false;
+		this.negate = negate;
+		this.compiler = null;
+		this.set = set == null ? null : unmodifiable(set);
+		this.filters = this.set == null ? null : EntryFilter.create(this.set,
+				options);
+		this.automaton = this.set == null || !options.isAutomaton() ? null
+				: PathAutomaton.create(this.set, options);
+	}
 
-		// empty patterns and comments match nothing.
-		if (!options.isNocomment() && !pattern.isEmpty() && pattern.charAt(0) == '#') {
-			this.comment = true;
-			return;
+	private static List<List<ParseItem>> unmodifiable(List<List<ParseItem>> set) {
+		List<List<ParseItem>> entries = new ArrayList<List<ParseItem>>(set.size());
+		for (List<ParseItem> entry : set) {
+			entries.add(Collections.unmodifiableList(entry));
 		}
+		return Collections.unmodifiableList(entries);
+	}
 
-		if (pattern == null) {
-			this.empty = true;
-			return;
+	private List<List<ParseItem>> make() {
+		// step 2: expand braces, segment by segment when possible so that
+		// a/{b,c}/{d,e} is one entry instead of the 4 combinations.
+		List<ParseItem> segments = braceSegments(this.pattern, this.options);
+		if (segments != null) {
+			List<List<ParseItem>> results = new ArrayList<List<ParseItem>>(1);
+			results.add(segments);
+			if (debug)
+				this.debug("%s %s", this.pattern, results); //$NON-NLS-1$
+			return results;
 		}
+		String[] set = /* this.globSet = */this.globSet(this.pattern, this.options);
 
-		// step 1: figure out negation, etc.
-		this.parseNegate();
-
-		// step 2: expand braces
-		String[] set = /* this.globSet = */this.braceExpand(this.pattern, this.options);
-
-		this.debug("%s %s", this.pattern, Arrays.toString(set)); //$NON-NLS-1$
+		if (debug)
+			this.debug("%s %s", this.pattern, Arrays.toString(set)); //$NON-NLS-1$
 
 		// step 3: now we have a set, so turn each one into a series
 		// of path-portion
@@ -135,7 +238,8 @@ public class Minimatch {
 		// set to the GLOBSTAR object for globstar behavior,
 		// and will not contain any / characters
 		String[][] globParts = globParts(set);
-		this.debug("%s %s", this.pattern, toString(globParts));
+		if (debug)
+			this.debug("%s %s", this.pattern, toString(globParts));
 
 		// glob --> regexps
 		List<List<ParseItem>> results = globToRegExps(globParts);
@@ -144,11 +248,87 @@ public class Minimatch {
 		/*
 		 * set = set.filter(function (s) { return s.indexOf(false) === -1 })
 		 */
-		this.debug("%s %s", this.pattern, results);
-		
-		this.set = results;
+		if (debug)
+			this.debug("%s %s", this.pattern, results);
+
+		// step 4: drop the entries which can't match more than another one.
+		results = optimize(results);
+		if (debug)
+			this.debug("%s %s", this.pattern, results); //$NON-NLS-1$
+		return results;
 	}
 	
+	/**
+	 * Removes the duplicate entries and the ones subsumed by an entry ending
+	 * with a globstar, like a/b/* by a/**, and moves the literal entries
+	 * first since they are the cheapest to match.
+	 */
+	private List<List<ParseItem>> optimize(List<List<ParseItem>> set) {
+		if (set.size() < 2) {
+			return set;
+		}
+		List<List<ParseItem>> entries = new ArrayList<List<ParseItem>>(
+				new LinkedHashSet<List<ParseItem>>(set));
+		List<List<ParseItem>> literals = new ArrayList<List<ParseItem>>();
+		List<List<ParseItem>> others = new ArrayList<List<ParseItem>>();
+		for (List<ParseItem> entry : entries) {
+			if (isSubsumed(entry, entries)) {
+				continue;
+			}
+			(isLiteral(entry) ? literals : others).add(entry);
+		}
+		literals.addAll(others);
+		return literals;
+	}
+
+	private boolean isSubsumed(List<ParseItem> entry, List<List<ParseItem>> entries) {
+		for (List<ParseItem> other : entries) {
+			if (other != entry && subsumes(other, entry)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// P/** matches P/R when the ** swallows every segment matched by R.
+	private boolean subsumes(List<ParseItem> general, List<ParseItem> entry) {
+		int prefix = general.size() - 1;
+		if (prefix < 0 || general.get(prefix) != GLOBSTAR
+				|| entry.size() <= prefix
+				|| (prefix == 0 && options.isMatchBase())
+				|| !general.subList(0, prefix).equals(entry.subList(0, prefix))) {
+			return false;
+		}
+		for (int i = prefix; i < entry.size(); i++) {
+			if (!isSwallowed(entry.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isSwallowed(ParseItem item) {
+		if (item == GLOBSTAR) {
+			return true;
+		}
+		if (item instanceof LiteralItem) {
+			String literal = item.getSource();
+			return options.isDot() ? !".".equals(literal) && !"..".equals(literal) //$NON-NLS-1$ //$NON-NLS-2$
+					: !literal.startsWith("."); //$NON-NLS-1$
+		}
+		return item instanceof MagicItem
+				&& ((MagicItem) item).excludesDotSegments(options.isDot());
+	}
+
+	private static boolean isLiteral(List<ParseItem> entry) {
+		for (ParseItem item : entry) {
+			if (!(item instanceof LiteralItem)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private String toString(String[][] globParts) {
 		StringBuilder sb = new StringBuilder();
 		sb.append('[');
@@ -175,17 +355,60 @@ public class Minimatch {
 		String[] s = null;
 		List<List<ParseItem>> parts = new ArrayList<List<ParseItem>>();
 		List<ParseItem> p = null;
+		// the expansions of braces have many segments in common:
+		// parse them once.
+		Map<String, ParseItem> items = globParts.length > 1 ? new HashMap<String, ParseItem>() : null;
 		for (int i = 0; i < globParts.length; i++) {
 			s = globParts[i];
-			p = new ArrayList<ParseItem>();
+			p = new ArrayList<ParseItem>(s.length);
 			parts.add(p);
 			for (int j = 0; j < s.length; j++) {
-				p.add(parse(s[j], false).getItem());
+				ParseItem item = items != null ? items.get(s[j]) : null;
+				if (item == null) {
+					item = segment(s[j]);
+					if (items != null && item != null) {
+						items.put(s[j], item);
+					}
+				}
+				p.add(item);
 			}
 		}
 		return parts;
 	}
 
+	/**
+	 * Parses a segment of the expanded set, or defers it until it's matched
+	 * with the lazy option: a segment without those chars is a literal,
+	 * parsed right away like the globstar.
+	 */
+	private ParseItem segment(String glob) {
+		if (compiler != null && !"**".equals(glob)) { //$NON-NLS-1$
+			for (int i = 0; i < glob.length(); i++) {
+				switch (glob.charAt(i)) {
+				case '*':
+				case '?':
+				case '[':
+				case '(':
+				case '\\':
+					return new LazyItem(glob, compiler);
+				}
+			}
+		}
+		return compile(glob);
+	}
+
+	private ParseItem compile(String glob) {
+		if (debug) {
+			// an interned segment would skip the debug output of the parser
+			return parseSegment(glob);
+		}
+		return SEGMENTS.intern(glob, options, this::parseSegment);
+	}
+
+	private ParseItem parseSegment(String glob) {
+		return parse(glob, false).getItem();
+	}
+
 	// parse a component of the expanded set.
 	// At this point, no pattern may contain "/" in it
 	// so we're going to return a 2d array, where each entry is the
@@ -215,18 +438,15 @@ public class Minimatch {
 		}
 
 		ParseContext ctx = new ParseContext();
-		ctx.re = "";
+		StringBuilder re = ctx.re;
 		ctx.hasMagic = options.isNocase();
 
 		boolean escaping = false;
 		// ? => one single character
-		Stack<PatternListItem> patternListStack = new Stack<PatternListItem>();
-		Stack<PatternListItem> negativeListStack = new Stack<PatternListItem>();
+		Deque<PatternListItem> patternListStack = new ArrayDeque<PatternListItem>();
+		Deque<PatternListItem> negativeListStack = new ArrayDeque<PatternListItem>();
 		char plType;
 
-		boolean inClass = false;
-		int reClassStart = -1;
-		int classStart = -1;
 		// . and .. never match anything that doesn't start with .,
 		// even when options.dot is set.
 		String patternStart = pattern.charAt(0) == '.' ? "" // anything
@@ -236,11 +456,12 @@ public class Minimatch {
 
 		for (int i = 0; i < pattern.length(); i++) {
 			char c = pattern.charAt(i);
-			this.debug("%s\t%s %s \"%c\"", pattern, i, ctx.re, c);
-			
+			if (debug)
+				this.debug("%s\t%s %s \"%c\"", pattern, i, re, c);
+
 			// skip over any that are escaped.
-			if (escaping && reSpecials.contains(c)) {
-				ctx.re += "\\" + c;
+			if (escaping && isReSpecial(c)) {
+				re.append('\\').append(c);
 				escaping = false;
 				continue;
 			}
@@ -264,24 +485,15 @@ public class Minimatch {
 			case '+':
 			case '@':
 			case '!':
-				this.debug("%s\t%s %s \"%c\" <-- stateChar", pattern, i,
-						ctx.re, c);
-
-				// all of those are literals inside a class, except that
-				// the glob [!a] means [^a] in regexp
-				if (inClass) {
-					this.debug("  in class");
-					if (c == '!' && i == classStart + 1) {
-						c = '^';
-					}
-					ctx.re += c;
-					continue;
-				}
+				if (debug)
+					this.debug("%s\t%s %s \"%c\" <-- stateChar", pattern, i,
+							re, c);
 
 				// if we already have a stateChar, then it means
 				// that there was something like ** or +? in there.
 				// Handle the stateChar, then proceed with this one.
-				this.debug("call clearStateChar \"%c\"", ctx.stateChar);
+				if (debug)
+					this.debug("call clearStateChar \"%c\"", ctx.stateChar);
 				clearStateChar(ctx);
 				ctx.stateChar = c;
 				// if extglob is disabled, then +(asdf|foo) isn't a thing.
@@ -294,35 +506,31 @@ public class Minimatch {
 				continue;
 
 			case '(':
-				if (inClass) {
-					ctx.re += "(";
-					continue;
-				}
-
-				if (ctx.stateChar == null) {
-					ctx.re += "\\(";
+				if (ctx.stateChar == ParseContext.NONE) {
+					re.append("\\("); //$NON-NLS-1$
 					continue;
 				}
 
 				plType = ctx.stateChar;
-				patternListStack.push(new PatternListItem(plType, i - 1, ctx.re
+				patternListStack.push(new PatternListItem(plType, i - 1, re
 						.length()));
 
 				// negation is (?:(?!js)[^/]*)
-				ctx.re += ctx.stateChar == '!' ? "(?:(?!(?:" : "(?:";
-				this.debug("plType \"%c\" \"%s\"", ctx.stateChar, ctx.re);
-				ctx.stateChar = null; // false;
+				re.append(ctx.stateChar == '!' ? "(?:(?!(?:" : "(?:");
+				if (debug)
+					this.debug("plType \"%c\" \"%s\"", ctx.stateChar, re);
+				ctx.stateChar = ParseContext.NONE; // false;
 				continue;
 
 			case ')':
-				if (inClass || patternListStack.size() == 0) {
-					ctx.re += "\\)";
+				if (patternListStack.isEmpty()) {
+					re.append("\\)"); //$NON-NLS-1$
 					continue;
 				}
 
 				clearStateChar(ctx);
 				ctx.hasMagic = true;
-				ctx.re += ")";
+				re.append(')');
 				PatternListItem pl = patternListStack.pop();
 				plType = pl.type;
 				// negation is (?:(?!js)[^/]*)
@@ -330,13 +538,13 @@ public class Minimatch {
 				switch (plType) {
 				case '!':
 					negativeListStack.push(pl);
-					ctx.re += ")[^/]*?)";
-					pl.reEnd = ctx.re.length();
+					re.append(")[^/]*?)"); //$NON-NLS-1$
+					pl.reEnd = re.length();
 					break;
 				case '?':
 				case '+':
 				case '*':
-					ctx.re += plType;
+					re.append(plType);
 					break;
 				case '@':
 					break; // the default anyway
@@ -344,14 +552,14 @@ public class Minimatch {
 				continue;
 
 			case '|':
-				if (inClass || patternListStack.size() == 0 || escaping) {
-					ctx.re += "\\|";
+				if (patternListStack.isEmpty() || escaping) {
+					re.append("\\|"); //$NON-NLS-1$
 					escaping = false;
 					continue;
 				}
 
 				clearStateChar(ctx);
-				ctx.re += '|';
+				re.append('|');
 				continue;
 
 			// these are mostly the same in regexp and glob
@@ -359,56 +567,22 @@ public class Minimatch {
 				// swallow any state-tracking char before the [
 				clearStateChar(ctx);
 
-				if (inClass) {
-					ctx.re += '\\' + c;
+				// "[z-a]" or "[abc" aren't valid classes: the [ is a
+				// literal and the rest of the pattern is parsed as usual.
+				BracketExpression bracket = BracketExpression.parse(pattern, i + 1);
+				if (bracket == null) {
+					re.append("\\["); //$NON-NLS-1$
 					continue;
 				}
-
-				inClass = true;
-				classStart = i;
-				reClassStart = ctx.re.length();
-				ctx.re += c;
+				ctx.hasMagic = true;
+				re.append(bracket.getCharClass().toRegex());
+				i = bracket.getEnd();
 				continue;
 
 			case ']':
-				// a right bracket shall lose its special
-				// meaning and represent itself in
-				// a bracket expression if it occurs
-				// first in the list. -- POSIX.2 2.8.3.2
-				if (i == classStart + 1 || !inClass) {
-					ctx.re += "\\" + c;
-					escaping = false;
-					continue;
-				}
-
-				// handle the case where we left a class open.
-				// "[z-a]" is valid, equivalent to "\[z-a\]"
-				if (inClass) {
-					// split where the last [ was, make sure we don't have
-					// an invalid re. if so, re-walk the contents of the
-					// would-be class to re-translate any characters that
-					// were passed through as-is
-					// TODO: It would probably be faster to determine this
-					// without a try/catch and a new RegExp, but it's tricky
-					// to do safely. For now, this is safe and works.
-					String cs = pattern.substring(classStart + 1, i);
-					try {
-						Pattern.compile("[" + cs + "]");
-					} catch (Throwable e) {
-						// not a valid class!
-						ParseResult sp = this.parse(cs, true);
-						ctx.re = ctx.re.substring(0, reClassStart) + "\\["
-								+ sp.getItem().getSource() + "\\]";
-						ctx.hasMagic = ctx.hasMagic || sp.isB();
-						inClass = false;
-						continue;
-					}
-				}
-
-				// finish up the class.
-				ctx.hasMagic = true;
-				inClass = false;
-				ctx.re += c;
+				// the ] of a class is read with it.
+				re.append("\\]"); //$NON-NLS-1$
+				escaping = false;
 				continue;
 
 			default:
@@ -418,28 +592,15 @@ public class Minimatch {
 				if (escaping) {
 					// no need
 					escaping = false;
-				} else if (reSpecials.contains(c) && !(c == '^' && inClass)) {
-					ctx.re += "\\";
+				} else if (isReSpecial(c)) {
+					re.append('\\');
 				}
 
-				ctx.re += c;
+				re.append(c);
 
 			} // switch
 		} // for
 
-		// handle the case where we left a class open.
-		// "[abc" is valid, equivalent to "\[abc"
-		if (inClass) {
-			// split where the last [ was, and escape it
-			// this is a huge pita. We now have to re-walk
-			// the contents of the would-be class to re-translate
-			// any characters that were passed through as-is
-			String cs = pattern.substring(classStart + 1);
-			ParseResult sp = this.parse(cs, true);
-			ctx.re = ctx.re.substring(0, reClassStart) + "\\[" + sp.getItem().getSource();
-			ctx.hasMagic = ctx.hasMagic || sp.isB();
-		}
-
 		// handle the case where we had a +( thing at the *end*
 		// of the pattern.
 		// each pattern list stack adds 3 chars, and we need to go through
@@ -448,13 +609,12 @@ public class Minimatch {
 		// | chars that were already escaped.
 		while (!patternListStack.isEmpty()) {
 			PatternListItem pl = patternListStack.pop();
-			String tail = ctx.re.substring(pl.reStart + 3);
-			// maybe some even number of \, then maybe 1 \, followed by a |
-			Pattern p = Pattern.compile("((?:\\\\{2})*)(\\\\?)\\|");
-			
-			//Java 1.6 lacks functional programming stuff, so replace manually 
-			Matcher m = p.matcher(tail);
-			StringBuilder sb = new StringBuilder();
+			String tail = re.substring(pl.reStart + 3);
+			re.setLength(pl.reStart);
+			re.append(pl.type == '*' ? STAR : pl.type == '?' ? QMARK
+					: "\\" + pl.type);
+			re.append("\\("); //$NON-NLS-1$
+			Matcher m = PIPE.matcher(tail);
 			int lastEnd = 0;
 			while (m.find()) {
 				String g1 = m.group(1);
@@ -469,33 +629,28 @@ public class Minimatch {
 		        // it exactly after itself.  That's why this trick works.
 		        //
 		        // I am sorry that you have to see this.
-				sb.append(tail.substring(lastEnd, m.start()));
-				sb.append(g1 + g1 + g2 + "|");
+				re.append(tail, lastEnd, m.start());
+				re.append(g1).append(g1).append(g2).append('|');
 				lastEnd = m.end();
 			}
-			sb.append(tail.substring(lastEnd));
-
-			tail = sb.toString();
-			
-			this.debug("tail=%s\n   %s", tail, tail);
-			String t = "*".equals(pl.type) ? STAR : "?".equals(pl.type) ? QMARK
-					: "\\" + pl.type;
+			re.append(tail, lastEnd, tail.length());
 
+			if (debug)
+				this.debug("tail=%s\n   %s", tail, tail);
 			ctx.hasMagic = true;
-			ctx.re = ctx.re.substring(0, pl.reStart) + t + "\\(" + tail;
 		}
 
 		// handle trailing things that only matter at the very end.
 		clearStateChar(ctx);
 		if (escaping) {
 			// trailing \\
-			ctx.re += "\\\\";
+			re.append("\\\\"); //$NON-NLS-1$
 		}
 
 		// only need to apply the nodot start if the re starts with
 		// something that could conceivably capture a dot
 		boolean addPatternStart = false;
-		switch (ctx.re.charAt(0)) {
+		switch (re.charAt(0)) {
 		case '.':
 		case '[':
 		case '(':
@@ -510,43 +665,38 @@ public class Minimatch {
 		while(!negativeListStack.isEmpty()) {
 			PatternListItem nl = negativeListStack.pop();
 
-		    String nlBefore = ctx.re.substring(0, nl.reStart);
-		    String nlFirst = ctx.re.substring(nl.reStart, nl.reEnd - 8);
-		    String nlLast = ctx.re.substring(nl.reEnd - 8, nl.reEnd);
-		    String nlAfter = ctx.re.substring(nl.reEnd);
-
-		    nlLast += nlAfter;
+		    String nlBefore = re.substring(0, nl.reStart);
+		    String nlAfter = re.substring(nl.reEnd);
 
 		    // Handle nested stuff like *(*.js|!(*.json)), where open parens
 		    // mean that we should *not* include the ) in the bit that is considered
 		    // "after" the negated section.
-		    int openParensBefore = nlBefore.split("\\(").length - 1;
+		    int openParensBefore = OPEN_PAREN.split(nlBefore).length - 1;
 		    String cleanAfter = nlAfter;
 		    for (int i = 0; i < openParensBefore; i++) {
-		    	cleanAfter = cleanAfter.replaceAll("\\)[+*?]?", "");
+		    	cleanAfter = CLOSE_PAREN.matcher(cleanAfter).replaceAll("");
 		    }
-		    nlAfter = cleanAfter;
 
-		    String dollar = "";
-		    if (nlAfter.isEmpty() && !isSub) {
-		    	dollar = "$";
+		    // the negated section is followed by what comes after it,
+		    // before its closing ")[^/]*?)"
+		    re.insert(nl.reEnd - 8, cleanAfter);
+		    if (cleanAfter.isEmpty() && !isSub) {
+		    	re.insert(nl.reEnd - 8, '$');
 		    }
-		    String newRe = nlBefore + nlFirst + nlAfter + dollar + nlLast;
-		    ctx.re = newRe;
 		}
 
 		// if the re is not "" at this point, then we need to make sure
 		// it doesn't match against an empty path part.
 		// Otherwise a/* will match a/, which it should not.
-		if (!StringUtils.isEmpty(ctx.re) && ctx.hasMagic)
-			ctx.re = "(?=.)" + ctx.re;
+		if (re.length() > 0 && ctx.hasMagic)
+			re.insert(0, "(?=.)"); //$NON-NLS-1$
 
 		if (addPatternStart) {
-			ctx.re = patternStart + ctx.re;
+			re.insert(0, patternStart);
 		}
 		// parsing just a piece of a larger pattern.
 		if (isSub) {
-			return new ParseResult(new LiteralItem(ctx.re), ctx.hasMagic);
+			return new ParseResult(new LiteralItem(re.toString()), ctx.hasMagic);
 		}
 
 		// skip the regexp for non-magical patterns
@@ -557,7 +707,11 @@ public class Minimatch {
 					StringUtils.globUnescape(pattern)), false);
 		}
 
-		return new ParseResult(new MagicItem(ctx.re, options), false);
+		return new ParseResult(MagicItem.create(re.toString(), options), false);
+	}
+
+	private static boolean isReSpecial(char c) {
+		return c < 128 && RE_SPECIALS[c];
 	}
 
 	protected void debug(String pattern, Object... arguments) {
@@ -567,97 +721,148 @@ public class Minimatch {
 	}
 
 	private void clearStateChar(ParseContext ctx) {
-		if (ctx.stateChar != null) {
+		if (ctx.stateChar != ParseContext.NONE) {
 			// we had some state-tracking character
 			// that wasn't consumed by this pass.
 			switch (ctx.stateChar) {
 			case '*':
-				ctx.re += STAR;
+				ctx.re.append(STAR);
 				ctx.hasMagic = true;
 				break;
 			case '?':
-				ctx.re += QMARK;
+				ctx.re.append(QMARK);
 				ctx.hasMagic = true;
 				break;
 			default:
-				ctx.re += "\\" + ctx.stateChar;
+				ctx.re.append('\\').append(ctx.stateChar);
 				break;
 			}
-			debug("clearStateChar \"%c\" \"%s\"", ctx.stateChar, ctx.re);
-			ctx.stateChar = null;
+			if (debug)
+				debug("clearStateChar \"%c\" \"%s\"", ctx.stateChar, ctx.re);
+			ctx.stateChar = ParseContext.NONE;
 		}
 	}
 
-	private void parseNegate() {
-		String pattern = this.pattern;
-		boolean negate = false;
-		Options options = this.options;
-		int negateOffset = 0;
-
+	// the number of leading '!', an odd number negates the pattern.
+	private static int negateOffset(String pattern, Options options) {
 		if (options.isNonegate()) {
-			return;
+			return 0;
 		}
-
+		int negateOffset = 0;
 		for (int i = 0, l = pattern.length(); i < l && pattern.charAt(i) == '!'; i++) {
-			negate = !negate;
 			negateOffset++;
 		}
+		return negateOffset;
+	}
 
-		if (negateOffset > 0) {
-			this.pattern = pattern.substring(negateOffset);
+	/**
+	 * Parses the segments of a pattern whose braces expand within segments:
+	 * the alternatives of a segment are combined into one item. Returns null
+	 * when the pattern must be expanded as a whole.
+	 */
+	private List<ParseItem> braceSegments(String pattern, Options options) {
+		if (options.isNobrace() || !hasBraces.matcher(pattern).find()
+				|| !BraceExpansion.expandsWithinSegments(pattern)) {
+			return null;
 		}
-		this.negate = negate;
+		String[] parts = slashSplit.split(pattern, Integer.MAX_VALUE);
+		boolean single = parts.length == 1;
+		List<ParseItem> segments = new ArrayList<ParseItem>(parts.length);
+		for (String part : parts) {
+			ParseItem item;
+			if (part.indexOf('{') == -1) {
+				item = segment(part);
+			} else {
+				BraceExpansion expansion = new BraceExpansion(part,
+						options.getMaxBraceExpansions());
+				String[] alternatives = expansion.toArray();
+				// an empty option is dropped when the segment is expanded
+				// alone, and a{,b}/c is [a/c, ab/c] but {,b}/c is [/c, b/c]
+				if (!single && alternatives.length != expansion.size()) {
+					return null;
+				}
+				List<ParseItem> items = new ArrayList<ParseItem>(alternatives.length);
+				for (String alternative : alternatives) {
+					if (alternative.isEmpty()
+							|| (!options.isNoglobstar() && "**".equals(alternative))) { //$NON-NLS-1$
+						return null;
+					}
+					ParseItem parsed = segment(alternative);
+					if (parsed == null) {
+						return null;
+					}
+					items.add(parsed);
+				}
+				if (items.isEmpty()) {
+					return null;
+				}
+				item = AlternationItem.create(part, items, options);
+			}
+			if (item == null) {
+				return null;
+			}
+			segments.add(item);
+		}
+		return segments;
 	}
 
-	private String[] braceExpand(String pattern, Options options) {
-		if (options.isNobrace() || !matches(hasBraces, pattern)) {
+	private String[] globSet(String pattern, Options options) {
+		if (options.isNobrace() || !hasBraces.matcher(pattern).find()) {
 			// shortcut. no need to expand.
 			return new String[] { pattern };
 		}
-		return expand(pattern);
+		return new BraceExpansion(pattern, options.getMaxBraceExpansions())
+				.toArray();
 	}
 
-	private String[] expand(String pattern) {
-		//XXX - implement brace expansion
-		return new String[] {pattern};
+	/**
+	 * Returns the patterns of the brace expansion of the given pattern, like
+	 * minimatch.braceExpand of Node.js. The expansions are computed while
+	 * iterating.
+	 * 
+	 * @param pattern
+	 * @param options
+	 * @return the expanded patterns.
+	 * @throws IllegalArgumentException
+	 *             if there are more than
+	 *             {@link Options#getMaxBraceExpansions()} expansions.
+	 */
+	public static Iterable<String> braceExpand(String pattern, Options options) {
+		options = getOptions(options);
+		if (options.isNobrace() || !hasBraces.matcher(pattern).find()) {
+			return Arrays.asList(pattern);
+		}
+		return new BraceExpansion(pattern, options.getMaxBraceExpansions());
 	}
 
-	private boolean match(List<String> f, boolean partial) {
+	boolean match(PathSegments file, boolean partial) {
 
 //		if ("/".equals(input) && partial)
 //			return true;
 		
-		Options options = this.options;
-		
 		// just ONE of the pattern sets in this.set needs to match
 		// in order for it to be valid. If negating, then just one
 		// match means that we have failed.
 		// Either way, return on the first hit.
 
 		List<List<ParseItem>> set = this.set;
-		this.debug("%s %s %s", this.pattern, "set", set);
+		if (debug)
+			this.debug("%s %s %s", this.pattern, "set", set);
 		
-		// Find the basename of the path by looking for the last non-empty
-		// segment
-		String filename = null;
-		int i;
-		for (i = f.size() - 1; i >= 0; i--) {
-			filename = f.get(i);
-			// if (filename) break;
-			if (!StringUtils.isEmpty(filename))
-				break;
-		}
+		int filename = basename(file);
 
-		for (i = 0; i < set.size(); i++) {
+		for (int i = 0; i < set.size(); i++) {
 			List<ParseItem> pattern = set.get(i);
-			List<String> file = f;
-			if (options.isMatchBase() && pattern.size() == 1) {
-				file = new ArrayList<String>();
-				file.add(filename);
+			int fileStart = 0;
+			int fileEnd = file.size();
+			if (matchBase && pattern.size() == 1) {
+				fileStart = filename;
+				fileEnd = filename + 1;
 			}
-			boolean hit = this.matchOne(file, pattern, partial);
+			boolean hit = this.matchOne(file, fileStart, fileEnd, pattern, 0,
+					partial ? PARTIAL : EXACT);
 			if (hit) {
-				if (options.isFlipNegate())
+				if (flipNegate)
 					return true;
 				return !this.negate;
 			}
@@ -665,35 +870,117 @@ public class Minimatch {
 
 		// didn't get any hits. this is success if it's a negative
 		// pattern, failure otherwise.
-		if (options.isFlipNegate())
+		if (flipNegate)
 			return false;
 		return this.negate;
 	}
 
+	// Find the basename of the path by looking for the last non-empty
+	// segment
+	static int basename(PathSegments file) {
+		int filename = 0;
+		for (int i = file.size() - 1; i >= 0; i--) {
+			filename = i;
+			// if (filename) break;
+			if (file.length(i) > 0)
+				break;
+		}
+		return filename;
+	}
+
+	List<List<ParseItem>> getSet() {
+		return set;
+	}
+
+	/**
+	 * Returns the number of alternative segment lists the pattern is compiled
+	 * to, after brace expansion and the removal of the redundant ones: each
+	 * path is matched against them in turn. Comments match nothing and have
+	 * none.
+	 * 
+	 * @return the size of the compiled set.
+	 */
+	public int getSetSize() {
+		return set != null ? set.size() : 0;
+	}
+
 	protected static Options getOptions(Options options) {
 		return options == null ? Options.DEFAULT : options;
 	}
 
-	// set partial to true to test if, for example,
+	// use PARTIAL mode to test if, for example,
 	// "/a/b" matches the start of "/*/b/*/d"
 	// Partial means, if you run out of file before you run
 	// out of pattern, then that's fine, as long as all
 	// the parts match.
-	private <T> boolean matchOne(List<String> file,
-			List<ParseItem> pattern, boolean partial) {
+	// DESCENDANT mode is partial, except that running out of
+	// file and pattern at the same time is not a hit: it tests
+	// if something below the directory "/a/b" can match.
+	boolean matchOne(PathSegments file, int fileStart, int fileEnd,
+			List<ParseItem> pattern, int patternStart, int mode) {
+		if (debug)
+			this.debug("matchOne\n\tOptions: %s\n\tfile: %s\n\tpattern: %s", options, file, pattern);
+		// a ** followed by more pattern needs a memo: borrow the one of the
+		// thread instead of allocating it for each match.
+		byte[] memo = null;
+		for (int i = patternStart; i < pattern.size() - 1; i++) {
+			if (pattern.get(i) == GLOBSTAR) {
+				memo = borrowMemo((fileEnd + 1) * (pattern.size() + 1));
+				break;
+			}
+		}
+		try {
+			return matchOne(file, fileStart, fileEnd, pattern, patternStart, mode, memo);
+		} finally {
+			if (memo != null) {
+				returnMemo(memo);
+			}
+		}
+	}
+
+	// the memo of the running match, taken out of the thread local while in
+	// use so that a nested match (from a Debugger...) gets its own.
+	private static final ThreadLocal<byte[]> MEMO = new ThreadLocal<byte[]>();
+
+	// the largest memo kept by a thread.
+	private static final int MAX_MEMO_SIZE = 1 << 16;
+
+	private static byte[] borrowMemo(int size) {
+		byte[] memo = MEMO.get();
+		if (memo == null || memo.length < size) {
+			return new byte[Math.max(size, 64)];
+		}
+		MEMO.set(null);
+		Arrays.fill(memo, 0, size, UNKNOWN);
+		return memo;
+	}
+
+	private static void returnMemo(byte[] memo) {
+		if (memo.length <= MAX_MEMO_SIZE) {
+			MEMO.set(memo);
+		}
+	}
+
+	// memo holds the outcome of the globstar at pattern index pi when it is
+	// reached at file index fi, in cell fi * (pattern.size() + 1) + pi. It is
+	// given when the pattern has a globstar that is not at its end, so that
+	// each (file, pattern) pair is only ever walked once.
+	private boolean matchOne(PathSegments file, int fileStart, int fileEnd,
+			List<ParseItem> pattern, int patternStart, int mode, byte[] memo) {
 		Options options = this.options;
+		boolean partial = mode != EXACT;
 
-		this.debug("matchOne\n\tOptions: %s\n\tfile: %s\n\tpattern: %s", options, file, pattern);
-		
-		this.debug("matchOne %s %s", file.size(), pattern.size());
+		if (debug)
+			this.debug("matchOne %s %s", fileEnd - fileStart, pattern.size() - patternStart);
 
-		int fi = 0, pi = 0, fl = file.size(), pl = pattern.size();
+		int fi = fileStart, pi = patternStart, fl = fileEnd, pl = pattern.size();
 		for (; (fi < fl) && (pi < pl); fi++, pi++) {
-			this.debug("matchOne loop");
+			if (debug)
+				this.debug("matchOne loop");
 			ParseItem p = pattern.get(pi);
-			String f = file.get(fi);
 
-			this.debug("%s %s %s", pattern, p, f);
+			if (debug)
+				this.debug("%s %s %s", pattern, p, file.get(fi));
 
 			// should be impossible.
 			// some invalid regexp stuff in the set.
@@ -702,7 +989,8 @@ public class Minimatch {
 			}
 
 			if (p instanceof GlobStar) {
-				this.debug("GLOBSTAR [%s, %s, %s]", pattern, p, f);
+				if (debug)
+					this.debug("GLOBSTAR [%s, %s, %s]", pattern, p, file.get(fi));
 				// "**"
 				// a/**/b/**/c would match the following:
 				// a/b/x/y/z/c
@@ -727,76 +1015,101 @@ public class Minimatch {
 				// - matchOne(c, c) yes, hit
 				int fr = fi;
 				int pr = pi + 1;
+				int width = pl + 1;
+				if (memo != null && memo[fi * width + pi] != UNKNOWN) {
+					return memo[fi * width + pi] == MATCH;
+				}
 				if (pr == pl) {
-					this.debug("** at the end");
+					if (debug)
+						this.debug("** at the end");
 					// a ** at the end will just swallow the rest.
 					// We have found a match.
 					// however, it will not swallow /.x, unless
 					// options.dot is set.
 					// . and .. are *never* matched by **, for explosively
 					// exponential reasons.
-					for (; fi < fl; fi++) {
-						String fileitem = file.get(fi);
-						if (fileitem.equals(".")
-								|| fileitem.equals("..")
-								|| (!options.isDot() && fileitem.length() > 0 && fileitem.charAt(0) == '.'))
-							return false;
+					boolean result = true;
+					for (; fr < fl; fr++) {
+						if (file.isDotOrDotDot(fr)
+								|| (!dot && file.length(fr) > 0 && file.charAt(fr, 0) == '.')) {
+							result = false;
+							break;
+						}
 					}
-					return true;
+					if (memo != null) {
+						// every start up to the first dot segment ends the same way
+						fill(memo, fi, Math.min(fr, fl - 1), width, pi, result);
+					}
+					return result;
 				}
 
 				// ok, let's see if we can swallow whatever we can.
+				// The outcome does not depend on where the swallowing
+				// started, so it is recorded for every segment passed over
+				// and later visits of this ** stop as soon as they reach one.
+				boolean result = false;
+				boolean decided = false;
 				while (fr < fl) {
-					String swallowee = file.get(fr);
-
-					this.debug("\nglobstar while %s %s %s %s %s", file, fr, pattern, pr,
-							swallowee);
-					// XXX remove this slice. Just pass the start index.
-					if (this.matchOne(file.subList(fr, file.size()),
-							pattern.subList(pr, pattern.size()), partial)) {
-						this.debug("globstar found match! %s %s %s", fr, fl,
-								swallowee);
+					if (fr > fi && memo[fr * width + pi] != UNKNOWN) {
+						result = memo[fr * width + pi] == MATCH;
+						decided = true;
+						break;
+					}
+					if (debug)
+						this.debug("\nglobstar while %s %s %s %s %s", file, fr, pattern, pr,
+								file.get(fr));
+					if (this.matchOne(file, fr, fl, pattern, pr, mode, memo)) {
+						if (debug)
+							this.debug("globstar found match! %s %s %s", fr, fl,
+									file.get(fr));
 						// found a match.
-						return true;
+						result = true;
+						decided = true;
+						break;
 					} else {
 						// can't swallow "." or ".." ever.
 						// can only swallow ".foo" when explicitly asked.
-						if (swallowee.equals(".")
-								|| swallowee.equals("..")
-								|| (!options.isDot() && swallowee.charAt(0) == '.')) {
-							this.debug("dot detected! %s %s %s %s", file, fr, pattern,
-									pr);
+						if (file.isDotOrDotDot(fr)
+								|| (!dot && file.length(fr) > 0 && file.charAt(fr, 0) == '.')) {
+							if (debug)
+								this.debug("dot detected! %s %s %s %s", file, fr, pattern,
+										pr);
+							decided = true;
 							break;
 						}
 
 						// ** swallows a segment, and continue.
-						this.debug("globstar swallow a segment, and continue");
+						if (debug)
+							this.debug("globstar swallow a segment, and continue");
 						fr++;
 					}
 				}
 
-				// no match was found.
-				// However, in partial mode, we can't say this is necessarily
-				// over.
-				// If there's more *pattern* left, then
-				if (partial) {
+				if (!decided) {
+					// no match was found.
+					// However, in partial mode, we can't say this is necessarily
+					// over.
+					// If there's more *pattern* left, then
+					if (debug)
+						this.debug("\n>>> no match, partial? %s %s %s %s", file, fr,
+								pattern, pr);
 					// ran out of file
-					this.debug("\n>>> no match, partial? %s %s %s %s", file, fr,
-							pattern, pr);
-					if (fr == fl)
-						return true;
+					result = partial;
 				}
-				return false;
+				fill(memo, fi, Math.min(fr, fl - 1), width, pi, result);
+				return result;
 			}
 
 			// something other than **
 			// non-magic patterns just have to match exactly
 			// patterns with magic have been turned into regexps.
-			if (!p.match(f, options)) {
-			    this.debug("pattern match %s %s false", p, f);
+			if (!p.match(file.getSource(fi), file.getStart(fi), file.getEnd(fi), options)) {
+				if (debug)
+					this.debug("pattern match %s %s false", p, file.get(fi));
 				return false;
 			}
-		    this.debug("pattern match %s %s true", p, f);
+			if (debug)
+				this.debug("pattern match %s %s true", p, file.get(fi));
 
 		}
 		// Note: ending in / means that we'll get a final ""
@@ -813,8 +1126,8 @@ public class Minimatch {
 		// now either we fell off the end of the pattern, or we're done.
 		if (fi == fl && pi == pl) {
 			// ran out of pattern and filename at the same time.
-			// an exact hit!
-			return true;
+			// an exact hit! (but nothing below it can match)
+			return mode != DESCENDANT;
 		} else if (fi == fl) {
 			// ran out of file, but still had pattern left.
 			// this is ok if we're doing the match as part of
@@ -826,7 +1139,7 @@ public class Minimatch {
 			// empty segment of a file with a trailing slash.
 			// a/* should match a/b/
 			boolean emptyFileEnd = (fi == fl - 1)
-					&& (file.get(fi).equals(""));
+					&& (file.length(fi) == 0);
 			return emptyFileEnd;
 		}
 
@@ -834,6 +1147,13 @@ public class Minimatch {
 		throw new IllegalStateException("wtf?");
 	}
 
+	private static void fill(byte[] memo, int from, int to, int width, int pi, boolean result) {
+		byte value = result ? MATCH : NO_MATCH;
+		for (int f = from; f <= to; f++) {
+			memo[f * width + pi] = value;
+		}
+	}
+
 	public static boolean minimatch(String p, String pattern) {
 		return minimatch(p, pattern, null);
 	}
@@ -844,7 +1164,7 @@ public class Minimatch {
 			options = Options.DEFAULT;
 		}
 		// shortcut: comments match nothing.
-		if (!options.isNocomment() && pattern.charAt(0) == '#') {
+		if (!options.isNocomment() && !pattern.isEmpty() && pattern.charAt(0) == '#') {
 			return false;
 		}
 		// "" only matches ""
@@ -852,7 +1172,115 @@ public class Minimatch {
 			return "".equals(p);
 		}
 
-		return new Minimatch(pattern, options).match(p);
+		return CACHE.get(pattern, options).match(p);
+	}
+
+	/**
+	 * Returns the cache of compiled patterns used by
+	 * {@link #minimatch(String, String, Options)}. Use
+	 * {@link MinimatchCache#setMaxSize(int)} to size or disable it.
+	 * 
+	 * @return the cache of compiled patterns.
+	 */
+	public static MinimatchCache getCache() {
+		return CACHE;
+	}
+
+	/**
+	 * Returns the table of the parsed segments shared by all the patterns,
+	 * with its dedup stats. Use {@link SegmentInterner#setMaxSize(int)} to
+	 * size or disable it.
+	 * 
+	 * @return the intern table of the segments.
+	 */
+	public static SegmentInterner getSegmentInterner() {
+		return SEGMENTS;
+	}
+
+	/**
+	 * Returns true if a path below the given directory can match this
+	 * pattern. A negated pattern can match below any directory.
+	 * 
+	 * @param dir
+	 *            the directory, like the paths given to {@link #match(String)}.
+	 * @return false if no path below dir can match.
+	 */
+	@Override
+	public boolean canMatchDescendant(String dir) {
+		if (this.comment || this.empty)
+			return false;
+		if (this.negate && !flipNegate)
+			return true;
+		PathSegments file = DefaultPathAdapter.toSegments(dir, options);
+		try {
+			int fileEnd = directoryEnd(dir, file);
+			for (List<ParseItem> pattern : set) {
+				// matchBase: a single segment can match any basename
+				if (matchBase && pattern.size() == 1)
+					return true;
+				if (matchOne(file, 0, fileEnd, pattern, 0, DESCENDANT))
+					return true;
+			}
+			return false;
+		} finally {
+			file.release();
+		}
+	}
+
+	/**
+	 * Returns the directory which contains every path that can match: the
+	 * literal segments which start all the expanded patterns, before their
+	 * last segment. For instance "src/main" for "src/main/**",
+	 * "" when the pattern starts with magic or is negated.
+	 * 
+	 * @return the literal directory prefix, without a trailing slash.
+	 */
+	public String getLiteralPrefix() {
+		if (this.comment || this.empty || (this.negate && !flipNegate))
+			return "";
+		int length = Integer.MAX_VALUE;
+		for (List<ParseItem> pattern : set) {
+			// matchBase: a single segment matches the basename anywhere
+			if (matchBase && pattern.size() == 1)
+				return "";
+			length = Math.min(length, pattern.size() - 1);
+		}
+		List<ParseItem> first = set.get(0);
+		int i = 0;
+		for (; i < length; i++) {
+			ParseItem p = first.get(i);
+			if (!(p instanceof LiteralItem))
+				break;
+			boolean shared = true;
+			for (int j = 1; j < set.size() && shared; j++) {
+				ParseItem other = set.get(j).get(i);
+				shared = other instanceof LiteralItem
+						&& other.getSource().equals(p.getSource());
+			}
+			if (!shared)
+				break;
+		}
+		StringBuilder prefix = new StringBuilder();
+		for (int j = 0; j < i; j++) {
+			if (j > 0)
+				prefix.append('/');
+			prefix.append(first.get(j).getSource());
+		}
+		if (i == 1 && prefix.length() == 0)
+			// the root of "/*"
+			return "/";
+		return prefix.toString();
+	}
+
+	// the segments of a directory, without the empty ones of
+	// trailing slashes. "" is the root of relative paths.
+	static int directoryEnd(String dir, PathSegments file) {
+		if (dir.isEmpty())
+			return 0;
+		int fileEnd = file.size();
+		while (fileEnd > 1 && file.length(fileEnd - 1) == 0)
+			fileEnd--;
+		return fileEnd;
 	}
 
 	public boolean match(String p) {
@@ -868,20 +1296,284 @@ public class Minimatch {
 	}
 
 	public <T> boolean match(T input, PathAdapter<T> adapter, boolean partial) {
-		this.debug("match %s %s", input, this.pattern);
+		if (debug)
+			this.debug("match %s %s", input, this.pattern);
 		
 		// short-circuit in the case of busted things.
 		// comments, etc.
 		if (this.comment)
 			return false;
+
+		if (!partial && adapter == DefaultPathAdapter.INSTANCE) {
+			int result = matchAutomaton((String) input);
+			if (result != PathAutomaton.UNKNOWN)
+				return result == PathAutomaton.MATCH;
+			if (rejects((String) input))
+				return !flipNegate && this.negate;
+		}
 		
-		List<String> file = adapter.toArray(input, this.options);
-		
+		PathSegments file;
+		if (adapter == DefaultPathAdapter.INSTANCE) {
+			file = DefaultPathAdapter.toSegments((String) input, this.options);
+		} else {
+			file = new PathSegments().reset(adapter.toArray(input, this.options));
+		}
+		try {
+			if (this.empty)
+				return file.isEmpty();
+			
+			if (debug)
+				this.debug("%s %s %s", this.pattern, "split", file);
+			return match(file, partial);
+		} finally {
+			file.release();
+		}
+	}
+
+	/**
+	 * Returns the paths which match, in their order, like minimatch.match of
+	 * Node.js without the nonull option. The segments of the paths are parsed
+	 * in one buffer reused for the whole batch, and the leading segments a
+	 * path has in common with the previous one are not matched again: sorted
+	 * paths are the fastest.
+	 * 
+	 * @param paths
+	 * @return the matching paths.
+	 */
+	public List<String> filter(Iterable<String> paths) {
+		List<String> matches = new ArrayList<String>();
+		BatchMatcher batch = newBatch();
+		PathSegments file = DefaultPathAdapter.toSegments("", options); //$NON-NLS-1$
+		try {
+			for (String path : paths) {
+				if (match(path, file, batch)) {
+					matches.add(path);
+				}
+			}
+		} finally {
+			file.release();
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the paths which match, in their order, splitting the work over
+	 * a parallel stream when parallel is true.
+	 * 
+	 * @param paths
+	 * @param parallel
+	 * @return the matching paths.
+	 */
+	public List<String> filter(Collection<String> paths, boolean parallel) {
+		if (!parallel) {
+			return filter(paths);
+		}
+		return paths.parallelStream().collect(filtering());
+	}
+
+	/**
+	 * Matches each path: out[i] is the result of {@link #match(String)} for
+	 * paths[i]. The segments of the paths are parsed in one buffer reused for
+	 * the whole batch, and the leading segments a path has in common with the
+	 * previous one are not matched again: sorted paths are the fastest.
+	 * 
+	 * @param paths
+	 * @param out
+	 *            the results, at least as long as paths.
+	 * @throws IllegalArgumentException
+	 *             if out is shorter than paths.
+	 */
+	public void matchAll(String[] paths, boolean[] out) {
+		if (out.length < paths.length) {
+			throw new IllegalArgumentException("out has " + out.length //$NON-NLS-1$
+					+ " elements for " + paths.length + " paths"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		BatchMatcher batch = newBatch();
+		PathSegments file = DefaultPathAdapter.toSegments("", options); //$NON-NLS-1$
+		try {
+			for (int i = 0; i < paths.length; i++) {
+				out[i] = match(paths[i], file, batch);
+			}
+		} finally {
+			file.release();
+		}
+	}
+
+	/**
+	 * Returns {@link #match(String)} as a predicate, which can be used by
+	 * parallel streams since a Minimatch is immutable.
+	 * 
+	 * <pre>
+	 * paths.parallelStream().filter(mm.asPredicate())
+	 * </pre>
+	 */
+	public Predicate<String> asPredicate() {
+		return this::match;
+	}
+
+	/**
+	 * Returns a collector of the paths which match, in encounter order.
+	 * 
+	 * <pre>
+	 * List&lt;String&gt; sources = paths.parallelStream().collect(mm.filtering());
+	 * </pre>
+	 */
+	public Collector<String, ?, List<String>> filtering() {
+		return Collector.<String, List<String>> of(ArrayList::new,
+				(matches, path) -> {
+					if (match(path)) {
+						matches.add(path);
+					}
+				}, (left, right) -> {
+					left.addAll(right);
+					return left;
+				});
+	}
+
+	/**
+	 * Returns a predicate which tests if a path matches the pattern, like
+	 * minimatch.filter of Node.js. The pattern is compiled once, with the
+	 * cache of {@link #minimatch(String, String, Options)}.
+	 * 
+	 * @param pattern
+	 * @param options
+	 * @return the predicate.
+	 */
+	public static Predicate<String> filter(String pattern, Options options) {
+		return CACHE.get(pattern, getOptions(options)).asPredicate();
+	}
+
+	// true when the cheap checks on the path string show that no entry of
+	// the set can match it, before the path is split in segments
+	private boolean rejects(String path) {
+		if (filters == null || this.empty)
+			return false;
+		int segments = EntryFilter.countSegments(path, options.isAllowWindowsPaths());
+		for (EntryFilter filter : filters) {
+			if (filter.accept(path, segments))
+				return false;
+		}
+		return true;
+	}
+
+	// the outcome of the match with the automaton, negation included
+	private int matchAutomaton(String path) {
+		if (automaton == null)
+			return PathAutomaton.UNKNOWN;
+		int result = automaton.match(path);
+		if (result == PathAutomaton.UNKNOWN)
+			return result;
+		boolean hit = result == PathAutomaton.MATCH;
+		boolean match = hit ? flipNegate || !this.negate : !flipNegate && this.negate;
+		return match ? PathAutomaton.MATCH : PathAutomaton.NO_MATCH;
+	}
+
+	/**
+	 * Returns true if the pattern is compiled to one automaton over the path
+	 * string, see {@link Options#setAutomaton(boolean)}.
+	 */
+	public boolean hasAutomaton() {
+		return automaton != null;
+	}
+
+	/**
+	 * Returns the regular expression of the whole pattern, like minimatch.makeRe
+	 * of Node.js: the segments are joined with "/" and the alternatives of the
+	 * set with "|". It doesn't collapse runs of separators nor accept a
+	 * trailing one, windows separators and matchBase aren't taken into
+	 * account, and it must be compiled with {@link Pattern#CASE_INSENSITIVE}
+	 * when nocase is set. Comments have none.
+	 * 
+	 * @return the regular expression or null for a comment.
+	 */
+	public String toRegex() {
+		if (this.comment)
+			return null;
+		StringBuilder re = new StringBuilder();
+		for (List<ParseItem> entry : set) {
+			if (re.length() > 0)
+				re.append('|');
+			String twoStar = dot ? TWO_STAR_DOT : TWO_STAR_NO_DOT;
+			int last = entry.size() - 1;
+			for (int i = 0; i <= last; i++) {
+				if (entry.get(i) != GLOBSTAR) {
+					appendRegex(re, entry.get(i));
+				} else if (i < last) {
+					// any number of segments, each followed by its separator
+					re.append("(?:").append(twoStar).append("\\/)*"); //$NON-NLS-1$ //$NON-NLS-2$
+					continue;
+				} else {
+					// at least the segment after the previous separator
+					re.append(twoStar).append("(?:\\/").append(twoStar).append(")*"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				if (i < last)
+					re.append("\\/"); //$NON-NLS-1$
+			}
+		}
+		re.insert(0, "^(?:").append(")$"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (this.negate)
+			re.insert(0, "^(?!").append(").*$"); //$NON-NLS-1$ //$NON-NLS-2$
+		return re.toString();
+	}
+
+	/**
+	 * Returns {@link #toRegex()} compiled, case insensitive when nocase is
+	 * set.
+	 * 
+	 * @return the regular expression or null for a comment.
+	 */
+	public Pattern makeRe() {
+		String re = toRegex();
+		if (re == null)
+			return null;
+		return Pattern.compile(re, options.isNocase() ? Pattern.CASE_INSENSITIVE : 0);
+	}
+
+	private void appendRegex(StringBuilder re, ParseItem item) {
+		if (item instanceof LazyItem) {
+			item = ((LazyItem) item).get();
+		}
+		if (item instanceof LiteralItem) {
+			String literal = item.getSource();
+			for (int i = 0; i < literal.length(); i++) {
+				char c = literal.charAt(i);
+				if (!Character.isLetterOrDigit(c) && c < 128)
+					re.append('\\');
+				re.append(c);
+			}
+		} else if (item instanceof AlternationItem) {
+			re.append("(?:"); //$NON-NLS-1$
+			List<ParseItem> alternatives = ((AlternationItem) item).getAlternatives();
+			for (int i = 0; i < alternatives.size(); i++) {
+				if (i > 0)
+					re.append('|');
+				appendRegex(re, alternatives.get(i));
+			}
+			re.append(')');
+		} else {
+			re.append(item.getSource());
+		}
+	}
+
+	private BatchMatcher newBatch() {
+		return this.comment || this.empty ? null : new BatchMatcher(this);
+	}
+
+	// match(String) with the segments and the shared prefixes of a batch
+	private boolean match(String path, PathSegments file, BatchMatcher batch) {
+		if (debug)
+			this.debug("match %s %s", path, this.pattern);
+		if (this.comment)
+			return false;
+		int result = matchAutomaton(path);
+		if (result != PathAutomaton.UNKNOWN)
+			return result == PathAutomaton.MATCH;
+		if (rejects(path))
+			return !flipNegate && this.negate;
+		file.reset(path, options.isAllowWindowsPaths());
 		if (this.empty)
 			return file.isEmpty();
-		
-		this.debug("%s %s %s", this.pattern, "split", file);
-		return match(file, partial);
+		return batch.match(file);
 	}
 
 }
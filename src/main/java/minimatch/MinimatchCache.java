@@ -0,0 +1,220 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe, size-bounded LRU cache of compiled {@link Minimatch} instances
+ * keyed by pattern and {@link Options} values. It is used by
+ * {@link Minimatch#minimatch(String, String, Options)} so that matching many
+ * paths against the same pattern does not re-parse the pattern every time.
+ * 
+ * A max size of 0 disables the cache.
+ */
+public class MinimatchCache {
+
+	public static final int DEFAULT_MAX_SIZE = 512;
+
+	private final LinkedHashMap<Key, Minimatch> entries;
+	private int maxSize;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	public MinimatchCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public MinimatchCache(int maxSize) {
+		checkMaxSize(maxSize);
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Key, Minimatch>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Minimatch> eldest) {
+				if (size() > MinimatchCache.this.maxSize) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the compiled {@link Minimatch} for the given pattern and options,
+	 * creating and caching it if needed.
+	 * 
+	 * @param pattern
+	 * @param options
+	 * @return the compiled {@link Minimatch}.
+	 */
+	public Minimatch get(String pattern, Options options) {
+		options = Minimatch.getOptions(options);
+		Key key = new Key(pattern, options);
+		boolean enabled;
+		synchronized (this) {
+			enabled = maxSize != 0;
+			if (enabled) {
+				Minimatch mm = entries.get(key);
+				if (mm != null) {
+					hitCount++;
+					return mm;
+				}
+			}
+			missCount++;
+		}
+		// compile outside of the lock, also when the cache is disabled. The
+		// cached instance owns a snapshot of the options so that later changes
+		// of the caller's options don't leak into it.
+		Minimatch mm = new Minimatch(pattern, options);
+		if (!enabled) {
+			return mm;
+		}
+		synchronized (this) {
+			if (maxSize == 0) {
+				return mm;
+			}
+			Minimatch existing = entries.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			entries.put(key, mm);
+			return mm;
+		}
+	}
+
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Set the max number of cached patterns. 0 disables the cache.
+	 * 
+	 * @param maxSize
+	 */
+	public synchronized MinimatchCache setMaxSize(int maxSize) {
+		checkMaxSize(maxSize);
+		this.maxSize = maxSize;
+		while (entries.size() > maxSize) {
+			Key eldest = entries.keySet().iterator().next();
+			entries.remove(eldest);
+			evictionCount++;
+		}
+		return this;
+	}
+
+	public synchronized boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	public synchronized void resetStats() {
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+	}
+
+	@Override
+	@SuppressWarnings("nls")
+	public synchronized String toString() {
+		return "MinimatchCache[size=" + entries.size() + ", maxSize=" + maxSize
+				+ ", hits=" + hitCount + ", misses=" + missCount
+				+ ", evictions=" + evictionCount + "]";
+	}
+
+	private static void checkMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("maxSize must be >= 0: " + maxSize); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Cache key: the pattern and a value snapshot of the options.
+	 */
+	private static class Key {
+
+		private final String pattern;
+		private final int flags;
+		private final int maxBraceExpansions;
+		private final Debugger debugger;
+		private final int hash;
+
+		public Key(String pattern, Options options) {
+			this.pattern = pattern;
+			this.flags = options.getFlags();
+			this.maxBraceExpansions = options.getMaxBraceExpansions();
+			this.debugger = options.getDebugger();
+			int h = pattern.hashCode();
+			h = 31 * h + flags;
+			h = 31 * h + maxBraceExpansions;
+			h = 31 * h + (debugger != null ? System.identityHashCode(debugger) : 0);
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return flags == other.flags
+					&& maxBraceExpansions == other.maxBraceExpansions
+					&& debugger == other.debugger
+					&& pattern.equals(other.pattern);
+		}
+	}
+}
@@ -23,9 +23,24 @@
  */
 package minimatch;
 
+/**
+ * The options of {@link Minimatch}. Options are modifiable with fluent
+ * setters, except the snapshots returned by {@link #snapshot()} which can be
+ * shared between threads: {@link Minimatch} compiles the patterns with a
+ * snapshot of the given options, so changing them afterwards has no effect
+ * on the compiled patterns.
+ */
 public class Options {
 
-	public static final Options DEFAULT = new Options();
+	/**
+	 * The default options, an unmodifiable snapshot.
+	 */
+	public static final Options DEFAULT = new Options().snapshot();
+
+	/**
+	 * The default maximum number of patterns a brace expansion can produce.
+	 */
+	public static final int DEFAULT_MAX_BRACE_EXPANSIONS = 10000;
 
 	private boolean allowWindowsPaths;
 	private boolean nocomment;
@@ -37,14 +52,77 @@ public class Options {
 	private boolean noext;
 	private boolean matchBase;
 	private boolean flipNegate;
+	private boolean automaton;
+	private boolean lazy;
+	private int maxBraceExpansions = DEFAULT_MAX_BRACE_EXPANSIONS;
 
 	private Debugger debugger;
 
+	private final boolean frozen;
+
+	public Options() {
+		this.frozen = false;
+	}
+
+	/**
+	 * Creates a modifiable copy of the given options.
+	 * 
+	 * @param options
+	 */
+	public Options(Options options) {
+		this(options, false);
+	}
+
+	private Options(Options options, boolean frozen) {
+		this.frozen = frozen;
+		this.allowWindowsPaths = options.allowWindowsPaths;
+		this.nocomment = options.nocomment;
+		this.nonegate = options.nonegate;
+		this.nobrace = options.nobrace;
+		this.noglobstar = options.noglobstar;
+		this.nocase = options.nocase;
+		this.dot = options.dot;
+		this.noext = options.noext;
+		this.matchBase = options.matchBase;
+		this.flipNegate = options.flipNegate;
+		this.automaton = options.automaton;
+		this.lazy = options.lazy;
+		this.maxBraceExpansions = options.maxBraceExpansions;
+		this.debugger = options.debugger;
+	}
+
+	/**
+	 * Returns an unmodifiable copy of the options, or the options themselves
+	 * when they already are a snapshot. The setters of a snapshot throw
+	 * {@link UnsupportedOperationException}, so it can be shared between
+	 * threads once safely published.
+	 * 
+	 * @return the snapshot of the options.
+	 */
+	public Options snapshot() {
+		return frozen ? this : new Options(this, true);
+	}
+
+	/**
+	 * Returns true if the options are a snapshot which can't be modified.
+	 */
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	private void checkModifiable() {
+		if (frozen) {
+			throw new UnsupportedOperationException(
+					"Options snapshot can't be modified"); //$NON-NLS-1$
+		}
+	}
+
 	public boolean isAllowWindowsPaths() {
 		return allowWindowsPaths;
 	}
 
 	public Options setAllowWindowsPaths(boolean allowWindowsPaths) {
+		checkModifiable();
 		this.allowWindowsPaths = allowWindowsPaths;
 		return this;
 	}
@@ -54,6 +132,7 @@ public class Options {
 	}
 
 	public Options setNocomment(boolean nocomment) {
+		checkModifiable();
 		this.nocomment = nocomment;
 		return this;
 	}
@@ -63,6 +142,7 @@ public class Options {
 	}
 
 	public Options setNonegate(boolean nonegate) {
+		checkModifiable();
 		this.nonegate = nonegate;
 		return this;
 	}
@@ -72,6 +152,7 @@ public class Options {
 	}
 
 	public Options setNobrace(boolean nobrace) {
+		checkModifiable();
 		this.nobrace = nobrace;
 		return this;
 	}
@@ -81,6 +162,7 @@ public class Options {
 	}
 
 	public Options setNoglobstar(boolean noglobstar) {
+		checkModifiable();
 		this.noglobstar = noglobstar;
 		return this;
 	}
@@ -90,6 +172,7 @@ public class Options {
 	}
 
 	public Options setNocase(boolean nocase) {
+		checkModifiable();
 		this.nocase = nocase;
 		return this;
 	}
@@ -99,6 +182,7 @@ public class Options {
 	}
 
 	public Options setDot(boolean dot) {
+		checkModifiable();
 		this.dot = dot;
 		return this;
 	}
@@ -108,6 +192,7 @@ public class Options {
 	}
 
 	public Options setNoext(boolean noext) {
+		checkModifiable();
 		this.noext = noext;
 		return this;
 	}
@@ -121,6 +206,7 @@ public class Options {
 	}
 
 	public Options setMatchBase(boolean matchBase) {
+		checkModifiable();
 		this.matchBase = matchBase;
 		return this;
 	}
@@ -130,19 +216,120 @@ public class Options {
 	}
 
 	public Options setFlipNegate(boolean flipNegate) {
+		checkModifiable();
 		this.flipNegate = flipNegate;
 		return this;
 	}
 
+	public boolean isAutomaton() {
+		return automaton;
+	}
+
+	/**
+	 * Compiles the whole pattern to one automaton over the path string when
+	 * its segments allow it, so that {@link Minimatch#match(String)} is a
+	 * single scan of the path. It takes longer to compile, and is worth it
+	 * for a pattern matched against many paths.
+	 */
+	public Options setAutomaton(boolean automaton) {
+		checkModifiable();
+		this.automaton = automaton;
+		return this;
+	}
+
+	public boolean isLazy() {
+		return lazy;
+	}
+
+	/**
+	 * Defers the parsing of the magic segments until they are first matched,
+	 * so that a pattern whose brace expansions are rarely all reached is
+	 * cheap to create. Literal segments and globstars are still parsed right
+	 * away. The automaton option, which needs every segment, wins over it.
+	 */
+	public Options setLazy(boolean lazy) {
+		checkModifiable();
+		this.lazy = lazy;
+		return this;
+	}
+
+	public int getMaxBraceExpansions() {
+		return maxBraceExpansions;
+	}
+
+	/**
+	 * Sets the maximum number of patterns a brace expansion can produce. A
+	 * pattern like <code>{a,b}{c,d}{e,f}...</code> with more expansions is
+	 * rejected with an {@link IllegalArgumentException}.
+	 */
+	public Options setMaxBraceExpansions(int maxBraceExpansions) {
+		checkModifiable();
+		if (maxBraceExpansions < 1) {
+			throw new IllegalArgumentException(
+					"maxBraceExpansions must be positive: " + maxBraceExpansions); //$NON-NLS-1$
+		}
+		this.maxBraceExpansions = maxBraceExpansions;
+		return this;
+	}
+
 	public Debugger getDebugger() {
 		return debugger;
 	}
 
 	public Options setDebugger(Debugger debugger) {
+		checkModifiable();
 		this.debugger = debugger;
 		return this;
 	}
 	
+	/**
+	 * Returns the boolean options as a bit mask, used as a value key.
+	 */
+	int getFlags() {
+		int flags = 0;
+		flags |= allowWindowsPaths ? 1 : 0;
+		flags |= nocomment ? 1 << 1 : 0;
+		flags |= nonegate ? 1 << 2 : 0;
+		flags |= nobrace ? 1 << 3 : 0;
+		flags |= noglobstar ? 1 << 4 : 0;
+		flags |= nocase ? 1 << 5 : 0;
+		flags |= dot ? 1 << 6 : 0;
+		flags |= noext ? 1 << 7 : 0;
+		flags |= matchBase ? 1 << 8 : 0;
+		flags |= flipNegate ? 1 << 9 : 0;
+		flags |= automaton ? 1 << 10 : 0;
+		flags |= lazy ? 1 << 11 : 0;
+		return flags;
+	}
+
+	/**
+	 * Returns the bits of {@link #getFlags()} which change how a segment is
+	 * parsed: noglobstar, nocase, dot and noext.
+	 */
+	int getParseFlags() {
+		return getFlags() & (1 << 4 | 1 << 5 | 1 << 6 | 1 << 7);
+	}
+
+	/**
+	 * Creates the options of the given bit mask of {@link #getFlags()}.
+	 */
+	static Options fromFlags(int flags, int maxBraceExpansions) {
+		Options options = new Options();
+		options.allowWindowsPaths = (flags & 1) != 0;
+		options.nocomment = (flags & 1 << 1) != 0;
+		options.nonegate = (flags & 1 << 2) != 0;
+		options.nobrace = (flags & 1 << 3) != 0;
+		options.noglobstar = (flags & 1 << 4) != 0;
+		options.nocase = (flags & 1 << 5) != 0;
+		options.dot = (flags & 1 << 6) != 0;
+		options.noext = (flags & 1 << 7) != 0;
+		options.matchBase = (flags & 1 << 8) != 0;
+		options.flipNegate = (flags & 1 << 9) != 0;
+		options.automaton = (flags & 1 << 10) != 0;
+		options.lazy = (flags & 1 << 11) != 0;
+		return options.setMaxBraceExpansions(maxBraceExpansions);
+	}
+
 	@Override
 	@SuppressWarnings("nls")
 	public String toString() {
@@ -157,6 +344,11 @@ public class Options {
 		appendIfTrue(sb, "noext", noext);
 		appendIfTrue(sb, "matchBase", matchBase);
 		appendIfTrue(sb, "flipNegate", flipNegate);
+		appendIfTrue(sb, "automaton", automaton);
+		appendIfTrue(sb, "lazy", lazy);
+		if (maxBraceExpansions != DEFAULT_MAX_BRACE_EXPANSIONS) {
+			sb.append("maxBraceExpansions=").append(maxBraceExpansions).append(", ");
+		}
 		if (sb.length() > 0) {
 			sb.insert(0, "[");
 			sb.setLength(sb.length() - 2);
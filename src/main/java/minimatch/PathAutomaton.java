@@ -0,0 +1,517 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minimatch.internal.parser.AlternationItem;
+import minimatch.internal.parser.GlobStar;
+import minimatch.internal.parser.LiteralItem;
+import minimatch.internal.parser.MagicItem;
+import minimatch.internal.parser.ParseItem;
+import minimatch.internal.parser.SegmentMatcher;
+
+/**
+ * The whole set compiled to one deterministic automaton over the chars of
+ * the path: a match is a single scan of the path string, without splitting
+ * it in segments. Runs of separators, the trailing separator, the globstars
+ * and the dot rules are handled like matchOne does.
+ *
+ * The automaton is built when every item is a literal, a globstar or a
+ * segment {@link SegmentMatcher} understands, without matchBase on a single
+ * segment entry, case insensitive literals or too many states. Paths with
+ * line terminators or surrogates are left to the segment matching (see
+ * {@link SegmentMatcher#accept(CharSequence, int, int)}).
+ */
+class PathAutomaton {
+
+	// results of match
+	static final int NO_MATCH = 0;
+	static final int MATCH = 1;
+	static final int UNKNOWN = 2;
+
+	// the largest automaton built, beyond it the set is matched segment by
+	// segment.
+	private static final int MAX_STATES = 512;
+
+	// transitions to no state at all and to the segment matching
+	private static final int DEAD = -1;
+	private static final int BAIL = -2;
+
+	// the first char of each char class after the first one
+	private final char[] boundaries;
+	private final byte[] asciiClasses;
+	private final int classes;
+	// transitions[state * classes + charClass]
+	private final int[] transitions;
+	private final boolean[] accepts;
+
+	private PathAutomaton(char[] boundaries, int[] transitions,
+			boolean[] accepts) {
+		this.boundaries = boundaries;
+		this.classes = boundaries.length + 1;
+		this.transitions = transitions;
+		this.accepts = accepts;
+		this.asciiClasses = new byte[128];
+		for (char c = 0; c < 128; c++) {
+			asciiClasses[c] = (byte) classOf(boundaries, c);
+		}
+	}
+
+	/**
+	 * Returns the automaton of the given set or null if it can't be built.
+	 *
+	 * @param set
+	 * @param options
+	 * @return the automaton or null.
+	 */
+	static PathAutomaton create(List<List<ParseItem>> set, Options options) {
+		Nfa nfa = new Nfa(options);
+		for (List<ParseItem> entry : set) {
+			if (entry.isEmpty()
+					|| (options.isMatchBase() && entry.size() == 1)
+					|| !nfa.add(entry)) {
+				return null;
+			}
+		}
+		return nfa.toDfa();
+	}
+
+	/**
+	 * Matches the whole path.
+	 *
+	 * @param path
+	 * @return {@link #MATCH}, {@link #NO_MATCH} or {@link #UNKNOWN} when the
+	 *         path must be matched segment by segment.
+	 */
+	int match(String path) {
+		int[] transitions = this.transitions;
+		int classes = this.classes;
+		int state = 0;
+		for (int i = 0, length = path.length(); i < length; i++) {
+			char c = path.charAt(i);
+			int charClass = c < 128 ? asciiClasses[c] : classOf(boundaries, c);
+			state = transitions[state * classes + charClass];
+			if (state < 0) {
+				return state == DEAD ? NO_MATCH : UNKNOWN;
+			}
+		}
+		return accepts[state] ? MATCH : NO_MATCH;
+	}
+
+	/**
+	 * Returns the number of states, for the tests.
+	 */
+	int size() {
+		return accepts.length;
+	}
+
+	private static int classOf(char[] boundaries, char c) {
+		int index = Arrays.binarySearch(boundaries, c);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * The nondeterministic automaton of the set. A state is a node and the
+	 * dot state of the segment, which tells if the chars read so far in the
+	 * segment are "." or "..". The epsilon moves depend on the next char of
+	 * the path, so that the dot and non empty lookaheads of the segments are
+	 * plain checks.
+	 */
+	private static class Nfa {
+
+		// kinds of node
+		// epsilon moves to the targets, after the guard checks
+		private static final byte SPLIT = 0;
+		// reads a char and moves to the target
+		private static final byte CHAR = 1;
+		// reads any number of chars, or moves to the target
+		private static final byte STAR = 2;
+		// end of a segment: the path ends or a separator follows
+		private static final byte SEGMENT_END = 3;
+		// reads a separator
+		private static final byte SEPARATOR = 4;
+		// reads the other separators of a run, then moves to the target
+		private static final byte SEPARATORS = 5;
+		// the empty segment of a trailing separator
+		private static final byte TRAILING = 6;
+
+		// guards of a split
+		private static final int NO_DOT = 1;
+		private static final int NOT_EMPTY = 2;
+		// tracks the dot state, for segments which can't be "." or ".."
+		private static final int NOT_RELATIVE = 4;
+
+		// dot states
+		private static final int OTHER = 0;
+		private static final int START = 1;
+		private static final int DOT = 2;
+		private static final int DOT_DOT = 3;
+		private static final int DOT_STATES = 4;
+
+		// the end of the path, as a next char
+		private static final int END = -1;
+
+		private final boolean allowWindowsPaths;
+		private final boolean dot;
+		private final boolean nocase;
+
+		private final List<Node> nodes = new ArrayList<Node>();
+		private final List<Integer> starts = new ArrayList<Integer>();
+		private final BitSet boundaries = new BitSet();
+
+		Nfa(Options options) {
+			this.allowWindowsPaths = options.isAllowWindowsPaths();
+			this.dot = options.isDot();
+			this.nocase = options.isNocase();
+			boundaries.set('.');
+			boundaries.set('.' + 1);
+			boundaries.set('/');
+			boundaries.set('/' + 1);
+			boundaries.set('\\');
+			boundaries.set('\\' + 1);
+			for (char c : new char[] { '\n', '\r', '\u0085', '\u2028', '\u2029' }) {
+				boundaries.set(c);
+				boundaries.set(c + 1);
+			}
+			boundaries.set(Character.MIN_SURROGATE);
+			boundaries.set(Character.MAX_SURROGATE + 1);
+		}
+
+		private static class Node {
+			final byte kind;
+			int guards;
+			int[] targets;
+			// CHAR: the matcher and its instruction or the literal char
+			SegmentMatcher matcher;
+			int index;
+			char literal;
+			// SEGMENT_END: the path can end after the segment
+			boolean last;
+
+			Node(byte kind) {
+				this.kind = kind;
+			}
+		}
+
+		private int node(byte kind, int... targets) {
+			Node node = new Node(kind);
+			node.targets = targets;
+			nodes.add(node);
+			return nodes.size() - 1;
+		}
+
+		// adds the nodes of an entry, false if one of its items isn't
+		// supported
+		boolean add(List<ParseItem> entry) {
+			int size = entry.size();
+			// the start of the segment of each item, built backwards
+			int next = node(TRAILING);
+			for (int i = size - 1; i >= 0; i--) {
+				ParseItem item = entry.get(i);
+				boolean last = i == size - 1;
+				if (item instanceof GlobStar) {
+					// swallows segments which aren't hidden or relative
+					int split = node(SPLIT, next, -1);
+					int end = segmentEnd(split, last);
+					int star = node(STAR, end);
+					int swallow = node(SPLIT, star);
+					nodes.get(swallow).guards = dot ? NOT_RELATIVE : NO_DOT;
+					nodes.get(split).targets[1] = swallow;
+					next = split;
+					continue;
+				}
+				List<ParseItem> alternatives = item instanceof AlternationItem
+						? ((AlternationItem) item).getAlternatives()
+						: Arrays.asList(item);
+				int end = segmentEnd(next, last);
+				int[] targets = new int[alternatives.size()];
+				for (int j = 0; j < targets.length; j++) {
+					targets[j] = segment(alternatives.get(j), end);
+					if (targets[j] == -1) {
+						return false;
+					}
+				}
+				next = node(SPLIT, targets);
+			}
+			starts.add(next);
+			return true;
+		}
+
+		// the end of a segment, then the separators before the next one
+		private int segmentEnd(int next, boolean last) {
+			int separators = node(SEPARATORS, next);
+			int separator = node(SEPARATOR, separators);
+			int end = node(SEGMENT_END, separator);
+			nodes.get(end).last = last;
+			return end;
+		}
+
+		// the nodes matching a segment, -1 if the item isn't supported
+		private int segment(ParseItem item, int end) {
+			if (item instanceof LiteralItem) {
+				String literal = item.getSource();
+				int next = end;
+				for (int i = literal.length() - 1; i >= 0; i--) {
+					char c = literal.charAt(i);
+					if (nocase && (c >= 128 || Character.isLetter(c))) {
+						// folded with the case mappings of String
+						return -1;
+					}
+					next = node(CHAR, next);
+					nodes.get(next).literal = c;
+					nodes.get(next).index = -1;
+					boundaries.set(c);
+					boundaries.set(c + 1);
+				}
+				return node(SPLIT, next);
+			}
+			if (!(item instanceof MagicItem)) {
+				return -1;
+			}
+			SegmentMatcher matcher = SegmentMatcher.compile(item.getSource(), nocase);
+			if (matcher == null) {
+				return -1;
+			}
+			matcher.addBoundaries(boundaries);
+			int next = end;
+			for (int i = matcher.size() - 1; i >= 0; i--) {
+				next = node(matcher.isStar(i) ? STAR : CHAR, next);
+				nodes.get(next).matcher = matcher;
+				nodes.get(next).index = i;
+			}
+			int start = node(SPLIT, next);
+			int guards = matcher.isNotEmpty() ? NOT_EMPTY : 0;
+			switch (matcher.getDotRule()) {
+			case SegmentMatcher.DOT_HIDDEN:
+				guards |= NO_DOT;
+				break;
+			case SegmentMatcher.DOT_RELATIVE:
+				guards |= NOT_RELATIVE;
+				break;
+			}
+			nodes.get(start).guards = guards;
+			return start;
+		}
+
+		private boolean isSeparator(int c) {
+			return c == '/' || (c == '\\' && allowWindowsPaths);
+		}
+
+		// the states reached by epsilon moves when the next char is c, the
+		// states reading a char are set in consumers. Returns true when the
+		// path can end there.
+		private boolean closure(BitSet states, int c, BitSet consumers) {
+			BitSet visited = new BitSet();
+			int[] stack = new int[16];
+			int top = 0;
+			for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+				if (top == stack.length) {
+					stack = Arrays.copyOf(stack, top * 2);
+				}
+				stack[top++] = s;
+			}
+			boolean accept = false;
+			boolean segmentEnd = c == END || isSeparator(c);
+			while (top > 0) {
+				int s = stack[--top];
+				if (visited.get(s)) {
+					continue;
+				}
+				visited.set(s);
+				Node node = nodes.get(s / DOT_STATES);
+				int dotState = s % DOT_STATES;
+				int[] next = null;
+				switch (node.kind) {
+				case SPLIT:
+					if (((node.guards & NO_DOT) != 0 && c == '.')
+							|| ((node.guards & NOT_EMPTY) != 0 && segmentEnd)) {
+						break;
+					}
+					if ((node.guards & NOT_RELATIVE) != 0) {
+						dotState = START;
+					}
+					next = node.targets;
+					break;
+				case CHAR:
+					consumers.set(s);
+					break;
+				case STAR:
+					consumers.set(s);
+					next = node.targets;
+					break;
+				case SEGMENT_END:
+					if (!segmentEnd || dotState == DOT || dotState == DOT_DOT) {
+						break;
+					}
+					if (c == END) {
+						accept |= node.last;
+					} else {
+						consumers.set(node.targets[0] * DOT_STATES);
+					}
+					break;
+				case SEPARATORS:
+					if (isSeparator(c)) {
+						consumers.set(s);
+					} else {
+						next = node.targets;
+						dotState = OTHER;
+					}
+					break;
+				case TRAILING:
+					// the pattern is over: only the empty segment after a
+					// trailing separator is left
+					accept |= c == END;
+					break;
+				}
+				if (next != null) {
+					for (int target : next) {
+						if (top == stack.length) {
+							stack = Arrays.copyOf(stack, top * 2);
+						}
+						stack[top++] = target * DOT_STATES + dotState;
+					}
+				}
+			}
+			return accept;
+		}
+
+		// the states reached from the consumers by reading c
+		private BitSet step(BitSet consumers, char c) {
+			BitSet states = new BitSet();
+			for (int s = consumers.nextSetBit(0); s >= 0; s = consumers.nextSetBit(s + 1)) {
+				Node node = nodes.get(s / DOT_STATES);
+				int dotState = s % DOT_STATES;
+				switch (node.kind) {
+				case CHAR:
+				case STAR:
+					if (isSeparator(c) || !matches(node, c)) {
+						break;
+					}
+					int target = node.kind == CHAR ? node.targets[0] : s / DOT_STATES;
+					states.set(target * DOT_STATES + nextDotState(dotState, c));
+					break;
+				case SEPARATOR:
+				case SEPARATORS:
+					if (isSeparator(c)) {
+						int separators = node.kind == SEPARATOR ? node.targets[0] : s / DOT_STATES;
+						states.set(separators * DOT_STATES);
+					}
+					break;
+				}
+			}
+			return states;
+		}
+
+		private static boolean matches(Node node, char c) {
+			if (node.kind == STAR && node.matcher == null) {
+				// globstar
+				return true;
+			}
+			return node.index == -1 ? node.literal == c
+					: node.matcher.matchesChar(node.index, c);
+		}
+
+		private static int nextDotState(int dotState, char c) {
+			switch (dotState) {
+			case START:
+				return c == '.' ? DOT : OTHER;
+			case DOT:
+				return c == '.' ? DOT_DOT : OTHER;
+			default:
+				return OTHER;
+			}
+		}
+
+		// the subset construction, over the classes of chars which all the
+		// nodes match the same way.
+		PathAutomaton toDfa() {
+			char[] bounds = new char[boundaries.cardinality()];
+			int n = 0;
+			for (int b = boundaries.nextSetBit(1); b >= 0 && b <= Character.MAX_VALUE; b = boundaries
+					.nextSetBit(b + 1)) {
+				bounds[n++] = (char) b;
+			}
+			bounds = Arrays.copyOf(bounds, n);
+			int classes = n + 1;
+
+			BitSet initial = new BitSet();
+			for (int start : starts) {
+				initial.set(start * DOT_STATES);
+			}
+			List<BitSet> states = new ArrayList<BitSet>();
+			Map<BitSet, Integer> ids = new HashMap<BitSet, Integer>();
+			states.add(initial);
+			ids.put(initial, 0);
+			int[] transitions = new int[classes * 16];
+			for (int id = 0; id < states.size(); id++) {
+				BitSet state = states.get(id);
+				if (transitions.length < (id + 1) * classes) {
+					transitions = Arrays.copyOf(transitions, transitions.length * 2);
+				}
+				for (int charClass = 0; charClass < classes; charClass++) {
+					char c = charClass == 0 ? 0 : bounds[charClass - 1];
+					int target;
+					if (isLineTerminator(c) || Character.isSurrogate(c)) {
+						target = BAIL;
+					} else {
+						BitSet consumers = new BitSet();
+						closure(state, c, consumers);
+						BitSet next = step(consumers, c);
+						if (next.isEmpty()) {
+							target = DEAD;
+						} else {
+							Integer known = ids.get(next);
+							if (known == null) {
+								if (states.size() == MAX_STATES) {
+									return null;
+								}
+								known = states.size();
+								states.add(next);
+								ids.put(next, known);
+							}
+							target = known;
+						}
+					}
+					transitions[id * classes + charClass] = target;
+				}
+			}
+			boolean[] accepts = new boolean[states.size()];
+			for (int id = 0; id < accepts.length; id++) {
+				accepts[id] = closure(states.get(id), END, new BitSet());
+			}
+			return new PathAutomaton(bounds,
+					Arrays.copyOf(transitions, accepts.length * classes), accepts);
+		}
+	}
+}
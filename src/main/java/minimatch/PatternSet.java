@@ -0,0 +1,479 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import minimatch.internal.LiteralTable;
+import minimatch.internal.adapters.DefaultPathAdapter;
+import minimatch.internal.adapters.PathSegments;
+import minimatch.internal.parser.GlobStar;
+import minimatch.internal.parser.LiteralItem;
+import minimatch.internal.parser.ParseItem;
+
+/**
+ * A list of patterns compiled together to be matched with one traversal of
+ * the path segments.
+ * 
+ * The parsed segments of every pattern, up to its first <code>**</code>, are
+ * shared in a trie keyed by {@link ParseItem}: a path segment is compared
+ * once with a literal shared by many patterns, and the literal children of a
+ * node are found with one hash lookup. What comes after the first
+ * <code>**</code> is matched like {@link Minimatch} does.
+ * 
+ * <pre>
+ * PatternSet set = new PatternSet(Arrays.asList("*.js", "lib/**", "!lib/*.js"), options);
+ * BitSet matches = set.match("lib/a.js"); // {1}
+ * </pre>
+ * 
+ * A compiled set can be saved with {@link #writeTo(OutputStream)} and loaded
+ * back with {@link #load(Path)} without parsing the patterns again.
+ */
+public class PatternSet implements DirectoryPruner {
+
+	private final String[] patterns;
+	private final Minimatch[] minimatches;
+	private final Options options;
+	private final Node root;
+	// patterns with a single segment, matched against the basename
+	// when options.matchBase is set
+	private final Node baseRoot;
+
+	public PatternSet(Collection<String> patterns) {
+		this(patterns, null);
+	}
+
+	public PatternSet(Collection<String> patterns, Options options) {
+		this(patterns.toArray(new String[patterns.size()]), Minimatch
+				.getOptions(options).snapshot());
+	}
+
+	private PatternSet(String[] patterns, Options options) {
+		this(patterns, compile(patterns, options), options);
+	}
+
+	PatternSet(String[] patterns, Minimatch[] minimatches, Options options) {
+		this.options = options;
+		this.patterns = patterns;
+		this.minimatches = minimatches;
+		NodeBuilder root = new NodeBuilder();
+		NodeBuilder baseRoot = new NodeBuilder();
+		for (int i = 0; i < this.patterns.length; i++) {
+			Minimatch mm = minimatches[i];
+			if (mm.comment || mm.empty) {
+				continue;
+			}
+			for (List<ParseItem> items : mm.getSet()) {
+				if (this.options.isMatchBase() && items.size() == 1) {
+					baseRoot.add(new Entry(i, mm, items), this.options);
+				} else {
+					root.add(new Entry(i, mm, items), this.options);
+				}
+			}
+		}
+		this.root = root.build();
+		this.baseRoot = baseRoot.build();
+	}
+
+	private static Minimatch[] compile(String[] patterns, Options options) {
+		Minimatch[] minimatches = new Minimatch[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			minimatches[i] = new Minimatch(patterns[i], options);
+		}
+		return minimatches;
+	}
+
+	/**
+	 * Reads a set written by {@link #writeTo(OutputStream)}: the patterns are
+	 * not parsed and no regular expression is compiled until one is needed
+	 * to match a path, so that loading many patterns costs little more than
+	 * reading them. The buffer is read from its position, which is left
+	 * unchanged.
+	 * 
+	 * @param buffer
+	 * @return the set.
+	 * @throws IOException
+	 *             if the buffer doesn't hold a set written by this version.
+	 */
+	public static PatternSet read(ByteBuffer buffer) throws IOException {
+		return PatternSetFormat.read(buffer);
+	}
+
+	/**
+	 * Reads a set written to the given file by
+	 * {@link #writeTo(OutputStream)}, mapping it in memory with one call.
+	 * 
+	 * @param file
+	 * @return the set.
+	 * @throws IOException
+	 *             if the file can't be read or doesn't hold a set written by
+	 *             this version.
+	 */
+	public static PatternSet load(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return read(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes the compiled set in a versioned binary format, to be read by
+	 * {@link #read(ByteBuffer)} or {@link #load(Path)} instead of compiling
+	 * the patterns again. The debugger of the options is not written.
+	 * 
+	 * @param out
+	 *            the stream, flushed but not closed.
+	 * @throws IOException
+	 */
+	public void writeTo(OutputStream out) throws IOException {
+		PatternSetFormat.write(this, out);
+	}
+
+	/**
+	 * Returns the number of patterns.
+	 */
+	public int size() {
+		return patterns.length;
+	}
+
+	public String getPattern(int index) {
+		return patterns[index];
+	}
+
+	public Minimatch getMinimatch(int index) {
+		return minimatches[index];
+	}
+
+	public Options getOptions() {
+		return options;
+	}
+
+	/**
+	 * Returns the indexes of the patterns which match the given path: bit i
+	 * is set when <code>getMinimatch(i).match(path)</code> would return true.
+	 */
+	public BitSet match(String path) {
+		return match(path, false);
+	}
+
+	public BitSet match(String path, boolean partial) {
+		return match(path, DefaultPathAdapter.INSTANCE, partial);
+	}
+
+	public <T> BitSet match(T input, PathAdapter<T> adapter) {
+		return match(input, adapter, false);
+	}
+
+	public <T> BitSet match(T input, PathAdapter<T> adapter, boolean partial) {
+		PathSegments file;
+		if (adapter == DefaultPathAdapter.INSTANCE) {
+			file = DefaultPathAdapter.toSegments((String) input, options);
+		} else {
+			file = new PathSegments().reset(adapter.toArray(input, options));
+		}
+		try {
+			BitSet hits = new BitSet(patterns.length);
+			if (root != null) {
+				visit(root, file, 0, file.size(), partial, hits);
+			}
+			if (baseRoot != null) {
+				int filename = Minimatch.basename(file);
+				visit(baseRoot, file, filename, filename + 1, partial, hits);
+			}
+			return toResult(hits, file);
+		} finally {
+			file.release();
+		}
+	}
+
+	/**
+	 * Returns true if a path below the given directory can match one of the
+	 * patterns.
+	 */
+	@Override
+	public boolean canMatchDescendant(String dir) {
+		if (baseRoot != null) {
+			return true;
+		}
+		for (Minimatch mm : minimatches) {
+			if (mm.negate && !mm.comment && !options.isFlipNegate()) {
+				return true;
+			}
+		}
+		if (root == null) {
+			return false;
+		}
+		PathSegments file = DefaultPathAdapter.toSegments(dir, options);
+		try {
+			return canMatchDescendant(root, file, 0, Minimatch.directoryEnd(dir, file));
+		} finally {
+			file.release();
+		}
+	}
+
+	private boolean canMatchDescendant(Node node, PathSegments file, int fi, int fl) {
+		for (Entry entry : node.tails) {
+			if (entry.minimatch.matchOne(file, fi, fl, entry.items, entry.start,
+					Minimatch.DESCENDANT)) {
+				return true;
+			}
+		}
+		if (fi == fl) {
+			// the patterns which end here match the directory itself
+			return node.pending.length > 0;
+		}
+		CharSequence source = file.getSource(fi);
+		int start = file.getStart(fi);
+		int end = file.getEnd(fi);
+		if (node.literals != null) {
+			int i = node.literals.indexOf(source, start, end);
+			if (i != -1 && canMatchDescendant(node.literalChildren[i], file, fi + 1, fl)) {
+				return true;
+			}
+		}
+		ParseItem[] items = node.items;
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].match(source, start, end, options)
+					&& canMatchDescendant(node.children[i], file, fi + 1, fl)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private BitSet toResult(BitSet hits, PathSegments file) {
+		// the same outcome as Minimatch#match for each pattern
+		boolean flipNegate = options.isFlipNegate();
+		BitSet result = new BitSet(patterns.length);
+		for (int i = 0; i < minimatches.length; i++) {
+			Minimatch mm = minimatches[i];
+			boolean match;
+			if (mm.comment) {
+				match = false;
+			} else if (mm.empty) {
+				match = file.isEmpty();
+			} else if (hits.get(i)) {
+				match = flipNegate || !mm.negate;
+			} else {
+				match = !flipNegate && mm.negate;
+			}
+			if (match) {
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	private void visit(Node node, PathSegments file, int fi, int fl,
+			boolean partial, BitSet hits) {
+		for (Entry entry : node.tails) {
+			if (!hits.get(entry.index)
+					&& entry.minimatch.matchOne(file, fi, fl, entry.items, entry.start,
+							partial ? Minimatch.PARTIAL : Minimatch.EXACT)) {
+				hits.set(entry.index);
+			}
+		}
+		if (fi == fl) {
+			// ran out of file: an exact hit for the patterns which end here,
+			// and a partial one for the patterns which go on.
+			set(hits, node.ends);
+			if (partial) {
+				set(hits, node.pending);
+			}
+			return;
+		}
+		if (fi == fl - 1 && file.length(fi) == 0) {
+			// a/* should match a/b/
+			set(hits, node.ends);
+		}
+		CharSequence source = file.getSource(fi);
+		int start = file.getStart(fi);
+		int end = file.getEnd(fi);
+		if (node.literals != null) {
+			int i = node.literals.indexOf(source, start, end);
+			if (i != -1) {
+				visit(node.literalChildren[i], file, fi + 1, fl, partial, hits);
+			}
+		}
+		ParseItem[] items = node.items;
+		for (int i = 0; i < items.length; i++) {
+			if (items[i].match(source, start, end, options)) {
+				visit(node.children[i], file, fi + 1, fl, partial, hits);
+			}
+		}
+	}
+
+	private static void set(BitSet hits, int[] indexes) {
+		for (int i = 0; i < indexes.length; i++) {
+			hits.set(indexes[i]);
+		}
+	}
+
+	/**
+	 * One brace expansion of a pattern. The items before start are in the
+	 * trie.
+	 */
+	private static class Entry {
+
+		final int index;
+		final Minimatch minimatch;
+		final List<ParseItem> items;
+		final int start;
+
+		Entry(int index, Minimatch minimatch, List<ParseItem> items) {
+			this.index = index;
+			this.minimatch = minimatch;
+			this.items = items;
+			int start = 0;
+			while (start < items.size() && items.get(start) != null
+					&& !(items.get(start) instanceof GlobStar)) {
+				start++;
+			}
+			this.start = start;
+		}
+	}
+
+	private static class Node {
+
+		private static final Entry[] NO_ENTRIES = new Entry[0];
+		private static final ParseItem[] NO_ITEMS = new ParseItem[0];
+
+		// entries which go on with a ** (or an invalid item) here
+		Entry[] tails = NO_ENTRIES;
+		// patterns which end here
+		int[] ends;
+		// patterns which end or go on below this node
+		int[] pending;
+		LiteralTable literals;
+		Node[] literalChildren;
+		ParseItem[] items = NO_ITEMS;
+		Node[] children;
+	}
+
+	private static class NodeBuilder {
+
+		private final List<Entry> tails = new ArrayList<Entry>();
+		private final BitSet ends = new BitSet();
+		private final Map<String, NodeBuilder> literals = new LinkedHashMap<String, NodeBuilder>();
+		private final Map<ParseItem, NodeBuilder> items = new LinkedHashMap<ParseItem, NodeBuilder>();
+
+		void add(Entry entry, Options options) {
+			NodeBuilder node = this;
+			for (int i = 0; i < entry.start; i++) {
+				node = node.child(entry.items.get(i), options);
+			}
+			if (entry.start < entry.items.size()) {
+				node.tails.add(entry);
+			} else {
+				node.ends.set(entry.index);
+			}
+		}
+
+		private NodeBuilder child(ParseItem item, Options options) {
+			// nocase literals are not folded like LiteralTable does
+			if (item instanceof LiteralItem && !options.isNocase()) {
+				NodeBuilder child = literals.get(item.getSource());
+				if (child == null) {
+					child = new NodeBuilder();
+					literals.put(item.getSource(), child);
+				}
+				return child;
+			}
+			NodeBuilder child = items.get(item);
+			if (child == null) {
+				child = new NodeBuilder();
+				items.put(item, child);
+			}
+			return child;
+		}
+
+		Node build() {
+			if (tails.isEmpty() && ends.isEmpty() && literals.isEmpty() && items.isEmpty()) {
+				return null;
+			}
+			return build(new BitSet());
+		}
+
+		private Node build(BitSet pending) {
+			Node node = new Node();
+			BitSet below = new BitSet();
+			if (!tails.isEmpty()) {
+				node.tails = tails.toArray(new Entry[tails.size()]);
+			}
+			if (!literals.isEmpty()) {
+				node.literals = new LiteralTable(literals.keySet(), false);
+				node.literalChildren = new Node[literals.size()];
+				int i = 0;
+				for (NodeBuilder child : literals.values()) {
+					node.literalChildren[i++] = child.build(below);
+				}
+			}
+			if (!items.isEmpty()) {
+				node.items = items.keySet().toArray(new ParseItem[items.size()]);
+				node.children = new Node[items.size()];
+				int i = 0;
+				for (NodeBuilder child : items.values()) {
+					node.children[i++] = child.build(below);
+				}
+			}
+			node.ends = toArray(ends);
+			node.pending = toArray(below);
+			pending.or(below);
+			pending.or(ends);
+			for (Entry entry : tails) {
+				pending.set(entry.index);
+			}
+			return node;
+		}
+
+		private static int[] toArray(BitSet bits) {
+			int[] array = new int[bits.cardinality()];
+			int j = 0;
+			for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+				array[j++] = i;
+			}
+			return array;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PatternSet" + Arrays.toString(patterns);
+	}
+}
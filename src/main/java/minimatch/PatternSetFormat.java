@@ -0,0 +1,157 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import minimatch.internal.parser.ItemReader;
+import minimatch.internal.parser.ItemWriter;
+import minimatch.internal.parser.ParseItem;
+
+/**
+ * The binary format of a compiled {@link PatternSet}. Big endian, like
+ * {@link java.io.DataOutput}:
+ * 
+ * <pre>
+ * int      magic, "MMPS"
+ * short    version
+ * int      the flags of the options
+ * int      the max brace expansions
+ * int      the number of patterns, then for each one:
+ *   string   the pattern
+ *   string   the pattern without its negation
+ *   byte     1 if it's a comment, 2 if it's negated
+ *   int      the number of entries of the set (unless it's a comment),
+ *            then for each one the number of items and the items
+ * </pre>
+ * 
+ * Strings are their length followed by their UTF-16 chars, the items are
+ * written by {@link ItemWriter}. The version must change with the format and
+ * with the items built by the parser: a set is read as it was compiled.
+ */
+final class PatternSetFormat {
+
+	// "MMPS"
+	static final int MAGIC = 0x4D4D5053;
+	static final short VERSION = 1;
+
+	private static final int COMMENT = 1;
+	private static final int NEGATE = 2;
+
+	private PatternSetFormat() {
+	}
+
+	static void write(PatternSet set, OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		Options options = set.getOptions();
+		data.writeInt(MAGIC);
+		data.writeShort(VERSION);
+		data.writeInt(options.getFlags());
+		data.writeInt(options.getMaxBraceExpansions());
+		ItemWriter items = new ItemWriter(data);
+		data.writeInt(set.size());
+		for (int i = 0; i < set.size(); i++) {
+			Minimatch mm = set.getMinimatch(i);
+			items.writeString(set.getPattern(i));
+			items.writeString(mm.pattern);
+			data.writeByte((mm.comment ? COMMENT : 0) | (mm.negate ? NEGATE : 0));
+			if (mm.comment) {
+				continue;
+			}
+			List<List<ParseItem>> entries = mm.getSet();
+			data.writeInt(entries.size());
+			for (List<ParseItem> entry : entries) {
+				data.writeInt(entry.size());
+				for (ParseItem item : entry) {
+					items.write(item);
+				}
+			}
+		}
+		data.flush();
+	}
+
+	static PatternSet read(ByteBuffer buffer) throws IOException {
+		ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException("Not a compiled pattern set"); //$NON-NLS-1$
+			}
+			short version = in.getShort();
+			if (version != VERSION) {
+				throw new IOException("Unsupported compiled pattern set version " //$NON-NLS-1$
+						+ version + ", the patterns must be compiled again"); //$NON-NLS-1$
+			}
+			Options options = Options.fromFlags(in.getInt(), in.getInt())
+					.snapshot();
+			ItemReader items = new ItemReader(in, options);
+			int size = readSize(in);
+			String[] patterns = new String[size];
+			Minimatch[] minimatches = new Minimatch[size];
+			for (int i = 0; i < size; i++) {
+				patterns[i] = items.readString();
+				String pattern = items.readString();
+				int flags = in.get();
+				boolean comment = (flags & COMMENT) != 0;
+				List<List<ParseItem>> set = null;
+				if (!comment) {
+					int entries = readSize(in);
+					set = new ArrayList<List<ParseItem>>(entries);
+					for (int j = 0; j < entries; j++) {
+						int length = readSize(in);
+						List<ParseItem> entry = new ArrayList<ParseItem>(length);
+						for (int k = 0; k < length; k++) {
+							entry.add(items.read());
+						}
+						set.add(entry);
+					}
+				}
+				minimatches[i] = new Minimatch(pattern, options, comment,
+						(flags & NEGATE) != 0, set);
+			}
+			return new PatternSet(patterns, minimatches, options);
+		} catch (BufferUnderflowException e) {
+			throw new EOFException("Truncated compiled pattern set"); //$NON-NLS-1$
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid compiled pattern set", e); //$NON-NLS-1$
+		}
+	}
+
+	// a number of elements of at least one byte each
+	private static int readSize(ByteBuffer in) throws IOException {
+		int size = in.getInt();
+		if (size < 0 || size > in.remaining()) {
+			throw new IOException("Invalid size: " + size); //$NON-NLS-1$
+		}
+		return size;
+	}
+}
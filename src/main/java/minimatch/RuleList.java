@@ -0,0 +1,227 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import minimatch.internal.adapters.DefaultPathAdapter;
+import minimatch.internal.adapters.PathSegments;
+
+/**
+ * An ordered list of rules like the lines of a <code>.gitignore</code> file:
+ * the last rule which matches a path decides, a negated rule (
+ * <code>!pattern</code>) includes again what an earlier rule excluded.
+ * 
+ * Rules are evaluated from the end and the evaluation stops on the first
+ * rule which matches. {@link #forDirectory(String)} returns the rules which
+ * can match something below a directory, to be used while walking it.
+ * 
+ * <pre>
+ * RuleList rules = new RuleList(Arrays.asList("*.log", "!important.log"), options);
+ * rules.match("debug.log"); // true
+ * rules.match("important.log"); // false, decided by rule 1
+ * </pre>
+ */
+public class RuleList implements DirectoryPruner {
+
+	private final Options options;
+	private final Rule[] all;
+	// the rules which can match, in order
+	private final Rule[] rules;
+
+	public RuleList(Collection<String> patterns) {
+		this(patterns, null);
+	}
+
+	public RuleList(Collection<String> patterns, Options options) {
+		this.options = Minimatch.getOptions(options).snapshot();
+		// with flipNegate, a rule "matches" when its pattern does, whether
+		// it is negated or not.
+		Options ruleOptions = new Options(this.options).setFlipNegate(true);
+		this.all = new Rule[patterns.size()];
+		List<Rule> rules = new ArrayList<Rule>();
+		int i = 0;
+		for (String pattern : patterns) {
+			Rule rule = new Rule(i, pattern, new Minimatch(pattern, ruleOptions));
+			all[i++] = rule;
+			if (!rule.minimatch.comment) {
+				rules.add(rule);
+			}
+		}
+		this.rules = rules.toArray(new Rule[rules.size()]);
+	}
+
+	private RuleList(RuleList parent, Rule[] rules) {
+		this.options = parent.options;
+		this.all = parent.all;
+		this.rules = rules;
+	}
+
+	/**
+	 * Returns the number of rules, comments included.
+	 */
+	public int size() {
+		return all.length;
+	}
+
+	public Rule getRule(int index) {
+		return all[index];
+	}
+
+	/**
+	 * Returns the rules which are evaluated by this list, in order: all the
+	 * rules which are not comments, or those which can match below the
+	 * directory given to {@link #forDirectory(String)}.
+	 */
+	public List<Rule> getRules() {
+		List<Rule> result = new ArrayList<Rule>(rules.length);
+		for (Rule rule : rules) {
+			result.add(rule);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns true if the last rule which matches the path is not negated.
+	 */
+	public boolean match(String path) {
+		Rule rule = decide(path);
+		return rule != null && !rule.isNegate();
+	}
+
+	/**
+	 * Returns the last rule which matches the path, or null if no rule
+	 * matches.
+	 */
+	public Rule decide(String path) {
+		return decide(path, DefaultPathAdapter.INSTANCE);
+	}
+
+	public <T> Rule decide(T input, PathAdapter<T> adapter) {
+		PathSegments file = split(input, adapter);
+		try {
+			for (int i = rules.length - 1; i >= 0; i--) {
+				Rule rule = rules[i];
+				if (rule.minimatch.empty ? file.isEmpty() : rule.minimatch.match(file, false)) {
+					return rule;
+				}
+			}
+			return null;
+		} finally {
+			file.release();
+		}
+	}
+
+	/**
+	 * Returns the list of the rules which can match a path below the given
+	 * directory. The other rules can never decide for those paths, so the
+	 * returned list gives the same results for them as this one.
+	 * 
+	 * @param dir
+	 *            the directory, relative like the paths given to
+	 *            {@link #decide(String)}.
+	 * @return the rules which can match below dir.
+	 */
+	public RuleList forDirectory(String dir) {
+		List<Rule> relevant = new ArrayList<Rule>(rules.length);
+		for (Rule rule : rules) {
+			// rules are compiled with flipNegate, so this is about the
+			// pattern, negated or not
+			if (rule.minimatch.canMatchDescendant(dir)) {
+				relevant.add(rule);
+			}
+		}
+		if (relevant.size() == rules.length) {
+			return this;
+		}
+		return new RuleList(this, relevant.toArray(new Rule[relevant.size()]));
+	}
+
+	/**
+	 * Returns true if a path below the given directory can be matched by a
+	 * rule which is not negated.
+	 */
+	@Override
+	public boolean canMatchDescendant(String dir) {
+		for (Rule rule : forDirectory(dir).rules) {
+			if (!rule.isNegate()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private <T> PathSegments split(T input, PathAdapter<T> adapter) {
+		if (adapter == DefaultPathAdapter.INSTANCE) {
+			return DefaultPathAdapter.toSegments((String) input, options);
+		}
+		return new PathSegments().reset(adapter.toArray(input, options));
+	}
+
+	@Override
+	public String toString() {
+		return "RuleList" + getRules();
+	}
+
+	/**
+	 * A rule of a {@link RuleList}.
+	 */
+	public static class Rule {
+
+		private final int index;
+		private final String pattern;
+		private final Minimatch minimatch;
+
+		Rule(int index, String pattern, Minimatch minimatch) {
+			this.index = index;
+			this.pattern = pattern;
+			this.minimatch = minimatch;
+		}
+
+		/**
+		 * Returns the position of the rule in the list.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		public String getPattern() {
+			return pattern;
+		}
+
+		/**
+		 * Returns true if the rule includes again the paths it matches.
+		 */
+		public boolean isNegate() {
+			return minimatch.negate;
+		}
+
+		@Override
+		public String toString() {
+			return index + ": " + pattern;
+		}
+	}
+}
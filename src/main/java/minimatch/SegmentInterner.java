@@ -0,0 +1,286 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import minimatch.internal.parser.ParseItem;
+
+/**
+ * Thread-safe, size-bounded intern table of the parsed segments, shared by
+ * the {@link Minimatch} instances: a segment like <code>*.java</code> or
+ * <code>src</code> which recurs in many patterns is parsed once, and all of
+ * them match it with the same item. Segments are keyed by their glob and the
+ * options which change how they are parsed (nocase, dot, noext,
+ * noglobstar).
+ * 
+ * The items are weakly referenced: one which is no longer used by any
+ * {@link Minimatch} is collected and its entry dropped. Beyond the max size,
+ * the least recently used entries are dropped, the items stay shared by the
+ * patterns which use them. A max size of 0 disables the table.
+ * 
+ * The dedup ratio ({@link #getDedupRatio()}) tells how many of the parsed
+ * segments were shared.
+ */
+public class SegmentInterner {
+
+	public static final int DEFAULT_MAX_SIZE = 4096;
+
+	private final LinkedHashMap<Key, Value> entries;
+	private final ReferenceQueue<ParseItem> collected = new ReferenceQueue<ParseItem>();
+	private int maxSize;
+
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+	private long collectedCount;
+
+	public SegmentInterner() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public SegmentInterner(int maxSize) {
+		checkMaxSize(maxSize);
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Key, Value>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Value> eldest) {
+				if (size() > SegmentInterner.this.maxSize) {
+					evictionCount++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the interned item of the given segment, parsing and interning
+	 * it if needed.
+	 * 
+	 * @param segment
+	 *            the glob of the segment.
+	 * @param options
+	 *            the options of the parser.
+	 * @param parser
+	 *            parses the segment with the options.
+	 * @return the item.
+	 */
+	ParseItem intern(String segment, Options options,
+			Function<String, ParseItem> parser) {
+		Key key = new Key(segment, options.getParseFlags());
+		boolean enabled;
+		synchronized (this) {
+			enabled = maxSize != 0;
+			if (enabled) {
+				expunge();
+				ParseItem item = get(key);
+				if (item != null) {
+					hitCount++;
+					return item;
+				}
+			}
+			missCount++;
+		}
+		// parse outside of the lock, also when the table is disabled, like
+		// MinimatchCache compiles.
+		ParseItem item = parser.apply(segment);
+		if (!enabled || item == null) {
+			return null;
+		}
+		synchronized (this) {
+			if (maxSize == 0) {
+				return item;
+			}
+			ParseItem existing = get(key);
+			if (existing != null) {
+				return existing;
+			}
+			entries.put(key, new Value(key, item, collected));
+			return item;
+		}
+	}
+
+	private ParseItem get(Key key) {
+		Value value = entries.get(key);
+		return value != null ? value.get() : null;
+	}
+
+	// drops the entries of the collected items
+	private void expunge() {
+		Value value;
+		while ((value = (Value) collected.poll()) != null) {
+			if (entries.get(value.key) == value) {
+				entries.remove(value.key);
+				collectedCount++;
+			}
+		}
+	}
+
+	public synchronized int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Set the max number of interned segments. 0 disables the table.
+	 * 
+	 * @param maxSize
+	 */
+	public synchronized SegmentInterner setMaxSize(int maxSize) {
+		checkMaxSize(maxSize);
+		this.maxSize = maxSize;
+		while (entries.size() > maxSize) {
+			Key eldest = entries.keySet().iterator().next();
+			entries.remove(eldest);
+			evictionCount++;
+		}
+		return this;
+	}
+
+	public synchronized boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/**
+	 * Returns the number of entries, some of which may have been collected
+	 * since the last call.
+	 */
+	public synchronized int size() {
+		expunge();
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of segments which were found in the table: each one
+	 * is an item shared instead of parsed.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Returns the number of entries dropped because their item was no longer
+	 * used.
+	 */
+	public synchronized long getCollectedCount() {
+		return collectedCount;
+	}
+
+	/**
+	 * Returns the part of the parsed segments which were shared, between 0
+	 * and 1: the hits divided by the hits and the misses.
+	 */
+	public synchronized double getDedupRatio() {
+		long total = hitCount + missCount;
+		return total == 0 ? 0 : (double) hitCount / total;
+	}
+
+	public synchronized void resetStats() {
+		hitCount = 0;
+		missCount = 0;
+		evictionCount = 0;
+		collectedCount = 0;
+	}
+
+	@Override
+	@SuppressWarnings("nls")
+	public synchronized String toString() {
+		return "SegmentInterner[size=" + entries.size() + ", maxSize=" + maxSize
+				+ ", hits=" + hitCount + ", misses=" + missCount
+				+ ", evictions=" + evictionCount + ", collected=" + collectedCount
+				+ ", dedupRatio=" + String.format("%.2f", getDedupRatio()) + "]";
+	}
+
+	private static void checkMaxSize(int maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException("maxSize must be >= 0: " + maxSize); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Table key: the glob of the segment and the parse flags of the options.
+	 */
+	private static class Key {
+
+		private final String segment;
+		private final int flags;
+		private final int hash;
+
+		Key(String segment, int flags) {
+			this.segment = segment;
+			this.flags = flags;
+			this.hash = 31 * segment.hashCode() + flags;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return flags == other.flags && segment.equals(other.segment);
+		}
+	}
+
+	/**
+	 * Weak reference to an item, which knows its key to drop the entry once
+	 * the item is collected.
+	 */
+	private static class Value extends WeakReference<ParseItem> {
+
+		final Key key;
+
+		Value(Key key, ParseItem item, ReferenceQueue<ParseItem> queue) {
+			super(item, queue);
+			this.key = key;
+		}
+	}
+}
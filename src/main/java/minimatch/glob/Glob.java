@@ -0,0 +1,242 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.glob;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+/**
+ * Walks the files of a directory which match a pattern.
+ * 
+ * The walk starts at the literal prefix of the pattern (
+ * {@link Minimatch#getLiteralPrefix()}), skips the directories below which
+ * nothing can match ({@link Minimatch#canMatchDescendant(String)}) and
+ * returns the matches lazily, while iterating. Paths are matched relative to
+ * the root, with '/' separators. Directories are matched with and without a
+ * trailing slash. Symbolic links to directories are not followed.
+ * 
+ * Like a {@link DirectoryStream}, a glob can be iterated only once and must
+ * be closed if the iteration doesn't end:
+ * 
+ * <pre>
+ * try (Glob glob = Glob.walk(root, "src/**&#47;*.java", options)) {
+ * 	for (Path path : glob) {
+ * 		...
+ * 	}
+ * }
+ * </pre>
+ */
+public class Glob implements Iterable<Path>, Closeable {
+
+	private final Path root;
+	private final Minimatch minimatch;
+	private final Deque<Directory> directories = new ArrayDeque<Directory>();
+	private boolean iterated;
+	private boolean closed;
+
+	private Glob(Path root, Minimatch minimatch) {
+		this.root = root;
+		this.minimatch = minimatch;
+	}
+
+	public static Glob walk(Path root, String pattern) {
+		return walk(root, pattern, null);
+	}
+
+	public static Glob walk(Path root, String pattern, Options options) {
+		return walk(root, new Minimatch(pattern, options));
+	}
+
+	public static Glob walk(Path root, Minimatch minimatch) {
+		return new Glob(root, minimatch);
+	}
+
+	public Path getRoot() {
+		return root;
+	}
+
+	public Minimatch getMinimatch() {
+		return minimatch;
+	}
+
+	@Override
+	public Iterator<Path> iterator() {
+		if (closed) {
+			throw new IllegalStateException("Glob is closed"); //$NON-NLS-1$
+		}
+		if (iterated) {
+			throw new IllegalStateException("Iterator already obtained"); //$NON-NLS-1$
+		}
+		iterated = true;
+		String prefix = minimatch.getLiteralPrefix();
+		Path start = prefix.isEmpty() ? root : root.resolve(prefix);
+		if (minimatch.canMatchDescendant(prefix)) {
+			open(start, prefix);
+		}
+		// "lib/**" matches the "lib/" prefix itself
+		final Path self = !prefix.isEmpty() && !directories.isEmpty()
+				&& matches(minimatch, prefix, true) ? start : null;
+		return new Iterator<Path>() {
+
+			private Path next = self;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					next = findNext();
+				}
+				return next != null;
+			}
+
+			@Override
+			public Path next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				Path path = next;
+				next = null;
+				return path;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private Path findNext() {
+		while (!closed && !directories.isEmpty()) {
+			Directory directory = directories.peek();
+			if (!directory.entries.hasNext()) {
+				directories.pop().close();
+				continue;
+			}
+			Path path = directory.entries.next();
+			String relative = child(directory.path, path);
+			boolean isDirectory = isDirectory(path);
+			if (isDirectory && minimatch.canMatchDescendant(relative)) {
+				// the children are visited after this path
+				open(path, relative);
+			}
+			if (matches(minimatch, relative, isDirectory)) {
+				return path;
+			}
+		}
+		return null;
+	}
+
+	private void open(Path dir, String relative) {
+		DirectoryStream<Path> stream = newDirectoryStream(dir);
+		if (stream != null) {
+			directories.push(new Directory(relative, stream));
+		}
+	}
+
+	// the path of a child, relative to the root like its directory
+	static String child(String directory, Path path) {
+		String name = path.getFileName().toString();
+		if (directory.isEmpty()) {
+			return name;
+		}
+		return directory.endsWith("/") ? directory + name : directory + '/' + name; //$NON-NLS-1$
+	}
+
+	static boolean isDirectory(Path path) {
+		return Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS);
+	}
+
+	static boolean matches(Minimatch minimatch, String relative, boolean isDirectory) {
+		return minimatch.match(relative)
+				|| (isDirectory && minimatch.match(relative + '/'));
+	}
+
+	// null when the directory can't be read
+	static DirectoryStream<Path> newDirectoryStream(Path dir) {
+		try {
+			return Files.newDirectoryStream(dir);
+		} catch (NoSuchFileException e) {
+			// the literal prefix doesn't exist, or the directory was deleted
+			return null;
+		} catch (AccessDeniedException e) {
+			return null;
+		} catch (NotDirectoryException e) {
+			return null;
+		} catch (IOException e) {
+			throw new DirectoryIteratorException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		IOException error = null;
+		while (!directories.isEmpty()) {
+			try {
+				directories.pop().stream.close();
+			} catch (IOException e) {
+				error = e;
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	private static class Directory {
+
+		final String path;
+		final DirectoryStream<Path> stream;
+		final Iterator<Path> entries;
+
+		Directory(String path, DirectoryStream<Path> stream) {
+			this.path = path;
+			this.stream = stream;
+			this.entries = stream.iterator();
+		}
+
+		void close() {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				throw new DirectoryIteratorException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,242 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.glob;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+/**
+ * Walks the files which match a pattern like {@link Glob}, with the
+ * subdirectories visited in parallel by the tasks of a {@link ForkJoinPool}.
+ * A subdirectory is skipped before its task is scheduled when nothing below
+ * it can match.
+ * 
+ * <pre>
+ * List&lt;Path&gt; paths = new ParallelGlob(root, "**&#47;*.java", options)
+ * 		.setParallelism(8).setOrdered(true).walk();
+ * </pre>
+ */
+public class ParallelGlob {
+
+	private final Path root;
+	private final Minimatch minimatch;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private boolean ordered;
+	// the cancel flag of the walk in progress, or of the next one: each walk
+	// replaces it when it returns
+	private final AtomicReference<AtomicBoolean> cancelled = new AtomicReference<AtomicBoolean>(
+			new AtomicBoolean());
+
+	public ParallelGlob(Path root, String pattern) {
+		this(root, pattern, null);
+	}
+
+	public ParallelGlob(Path root, String pattern, Options options) {
+		this(root, new Minimatch(pattern, options));
+	}
+
+	public ParallelGlob(Path root, Minimatch minimatch) {
+		this.root = root;
+		this.minimatch = minimatch;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the maximum number of directories which are read at the same
+	 * time.
+	 */
+	public ParallelGlob setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be positive: " //$NON-NLS-1$
+					+ parallelism);
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	public boolean isOrdered() {
+		return ordered;
+	}
+
+	/**
+	 * When ordered, the entries of a directory are sorted by name and
+	 * {@link #walk()} returns the paths in the same order on every run: a
+	 * directory before its children. Otherwise the paths of a directory are
+	 * in the order of the file system.
+	 */
+	public ParallelGlob setOrdered(boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
+	/**
+	 * Stops the walk in progress, or the next one when none is running: the
+	 * tasks which are not started yet do nothing and {@link #walk()} throws a
+	 * {@link CancellationException}. The walks after that one are not
+	 * cancelled.
+	 */
+	public void cancel() {
+		cancelled.get().set(true);
+	}
+
+	public boolean isCancelled() {
+		return cancelled.get().get();
+	}
+
+	/**
+	 * Returns the paths which match.
+	 * 
+	 * @return the paths which match.
+	 * @throws CancellationException
+	 *             if the walk was cancelled.
+	 * @throws DirectoryIteratorException
+	 *             if a directory can't be read.
+	 */
+	public List<Path> walk() {
+		AtomicBoolean cancelled = this.cancelled.get();
+		try {
+			return walk(cancelled);
+		} finally {
+			this.cancelled.compareAndSet(cancelled, new AtomicBoolean());
+		}
+	}
+
+	private List<Path> walk(AtomicBoolean cancelled) {
+		String prefix = minimatch.getLiteralPrefix();
+		Path start = prefix.isEmpty() ? root : root.resolve(prefix);
+		List<Path> paths = new ArrayList<Path>();
+		if (minimatch.canMatchDescendant(prefix)) {
+			if (!prefix.isEmpty() && Glob.isDirectory(start)
+					&& Glob.matches(minimatch, prefix, true)) {
+				paths.add(start);
+			}
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				paths.addAll(pool.invoke(new DirectoryTask(start, prefix, cancelled)));
+			} finally {
+				pool.shutdown();
+			}
+		}
+		if (cancelled.get()) {
+			throw new CancellationException();
+		}
+		return paths;
+	}
+
+	private class DirectoryTask extends RecursiveTask<List<Path>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path dir;
+		private final String relative;
+		private final AtomicBoolean cancelled;
+
+		DirectoryTask(Path dir, String relative, AtomicBoolean cancelled) {
+			this.dir = dir;
+			this.relative = relative;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		protected List<Path> compute() {
+			if (cancelled.get()) {
+				return Collections.emptyList();
+			}
+			List<Path> entries = list(dir);
+			// the paths which match and the tasks of the subdirectories,
+			// in the order of the entries
+			List<Object> parts = new ArrayList<Object>(entries.size());
+			List<DirectoryTask> tasks = new ArrayList<DirectoryTask>();
+			for (Path path : entries) {
+				if (cancelled.get()) {
+					break;
+				}
+				String child = Glob.child(relative, path);
+				boolean isDirectory = Glob.isDirectory(path);
+				if (Glob.matches(minimatch, child, isDirectory)) {
+					parts.add(path);
+				}
+				if (isDirectory && minimatch.canMatchDescendant(child)) {
+					DirectoryTask task = new DirectoryTask(path, child, cancelled);
+					task.fork();
+					parts.add(task);
+					tasks.add(task);
+				}
+			}
+			// join the last forked task first, it is the most likely to be
+			// still in the queue of this thread
+			for (int i = tasks.size() - 1; i >= 0; i--) {
+				tasks.get(i).join();
+			}
+			List<Path> paths = new ArrayList<Path>();
+			for (Object part : parts) {
+				if (part instanceof Path) {
+					paths.add((Path) part);
+				} else {
+					paths.addAll(((DirectoryTask) part).getRawResult());
+				}
+			}
+			return paths;
+		}
+
+		private List<Path> list(Path dir) {
+			List<Path> entries = new ArrayList<Path>();
+			DirectoryStream<Path> stream = Glob.newDirectoryStream(dir);
+			if (stream == null) {
+				return entries;
+			}
+			try {
+				for (Path path : stream) {
+					entries.add(path);
+				}
+			} finally {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					throw new DirectoryIteratorException(e);
+				}
+			}
+			if (ordered) {
+				Collections.sort(entries);
+			}
+			return entries;
+		}
+	}
+}
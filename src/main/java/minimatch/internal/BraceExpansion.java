@@ -0,0 +1,628 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+/**
+ * Brace expansion like Bash does it, port of
+ * https://github.com/juliangruber/brace-expansion and
+ * https://github.com/juliangruber/balanced-match used by Node.js' minimatch.
+ * 
+ * The pattern is parsed into a tree of texts, alternatives and sequences
+ * which is expanded while iterating: the expansions are not materialized,
+ * and the parts they have in common are shared. The number of expansions is
+ * known before iterating and can't be more than the given maximum.
+ * 
+ * Escaped characters (<code>\{</code>, <code>\,</code>, ...) are kept
+ * escaped in the expansions, so that the glob parser still reads them as
+ * literals.
+ */
+public class BraceExpansion implements Iterable<String> {
+
+	// placeholders of escaped characters, noncharacters which can't be in a
+	// pattern
+	private static final char ESC_SLASH = '\uFDD0';
+	private static final char ESC_OPEN = '\uFDD1';
+	private static final char ESC_CLOSE = '\uFDD2';
+	private static final char ESC_COMMA = '\uFDD3';
+	private static final char ESC_PERIOD = '\uFDD4';
+	// braces which are literals, without a backslash
+	private static final char LITERAL_OPEN = '\uFDD5';
+	private static final char LITERAL_CLOSE = '\uFDD6';
+
+	private static final Pattern NUMERIC_SEQUENCE = Pattern
+			.compile("^-?\\d+\\.\\.-?\\d+(?:\\.\\.-?\\d+)?$"); //$NON-NLS-1$
+	private static final Pattern ALPHA_SEQUENCE = Pattern
+			.compile("^[a-zA-Z]\\.\\.[a-zA-Z](?:\\.\\.-?\\d+)?$"); //$NON-NLS-1$
+	private static final Pattern PADDED = Pattern.compile("^-?0\\d"); //$NON-NLS-1$
+	private static final Pattern COMMA_CLOSE = Pattern.compile(",.*\\}"); //$NON-NLS-1$
+
+	private final String pattern;
+	private final Node root;
+	private final boolean skipEmpty;
+	private final long size;
+
+	/**
+	 * Parses the braces of the pattern.
+	 * 
+	 * @param pattern
+	 * @param max
+	 *            the maximum number of expansions.
+	 * @throws IllegalArgumentException
+	 *             if the pattern has more than max expansions.
+	 */
+	public BraceExpansion(String pattern, int max) {
+		this.pattern = pattern;
+		if (pattern.isEmpty()) {
+			this.root = null;
+			this.skipEmpty = false;
+			this.size = 0;
+			return;
+		}
+		// I don't know why Bash 4.3 does this, but it does.
+		// Anything starting with {} will have the first two bytes preserved
+		// but *only* at the top level, so {},a}b will not expand to anything,
+		// but a{},b}c will be expanded to [a}c,abc].
+		// One could argue that this is a bug in Bash, but since the goal of
+		// this module is to match Bash's rules, we escape a leading {}
+		String str = escapeBraces(pattern);
+		if (str.startsWith("{}")) { //$NON-NLS-1$
+			str = LITERAL_OPEN + "" + LITERAL_CLOSE + str.substring(2); //$NON-NLS-1$
+		}
+		Expander expander = new Expander(pattern, max);
+		this.root = expander.expand(str, true);
+		this.skipEmpty = expander.topOptions;
+		this.size = root.count;
+		if (size > max) {
+			throw tooMany(pattern, max);
+		}
+	}
+
+	/**
+	 * Returns the number of expansions, including the empty ones which are
+	 * skipped while iterating.
+	 */
+	public long size() {
+		return size;
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Returns all the expansions.
+	 */
+	public String[] toArray() {
+		List<String> expansions = new ArrayList<String>((int) size);
+		for (String expansion : this) {
+			expansions.add(expansion);
+		}
+		return expansions.toArray(new String[expansions.size()]);
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return new Iterator<String>() {
+
+			private final StringBuilder buffer = new StringBuilder();
+			private long index;
+			private String next;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null && index < size) {
+					buffer.setLength(0);
+					root.append(index++, buffer);
+					// an empty top-level option is dropped: a{,b} is [a, ab]
+					// but {,b} is [b]
+					if (buffer.length() > 0 || !skipEmpty) {
+						next = unescapeBraces(buffer);
+					}
+				}
+				return next != null;
+			}
+
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String result = next;
+				next = null;
+				return result;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+	/**
+	 * Returns true if the braces of the pattern expand within its '/'
+	 * separated segments: each segment can be expanded on its own, and the
+	 * expansions of the pattern are the combinations of the expansions of its
+	 * segments. This is the case when the braces are balanced, contain no '/'
+	 * and each outermost pair is a comma set or a sequence.
+	 * 
+	 * @param pattern
+	 * @return true if the segments can be expanded separately.
+	 */
+	public static boolean expandsWithinSegments(String pattern) {
+		String str = escapeBraces(pattern);
+		int depth = 0;
+		int start = -1;
+		boolean options = false;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+			case '{':
+				if (i > 0 && str.charAt(i - 1) == '$') {
+					return false;
+				}
+				if (depth++ == 0) {
+					start = i;
+					options = false;
+				}
+				break;
+			case '}':
+				if (depth == 0) {
+					return false;
+				}
+				if (--depth == 0) {
+					String body = str.substring(start + 1, i);
+					if (!options && !NUMERIC_SEQUENCE.matcher(body).matches()
+							&& !ALPHA_SEQUENCE.matcher(body).matches()) {
+						return false;
+					}
+				}
+				break;
+			case ',':
+				options |= depth == 1;
+				break;
+			case '/':
+				if (depth > 0) {
+					return false;
+				}
+				break;
+			}
+		}
+		return depth == 0;
+	}
+
+	private static IllegalArgumentException tooMany(String pattern, int max) {
+		return new IllegalArgumentException("Brace expansion of '" + pattern //$NON-NLS-1$
+				+ "' has more than " + max + " expansions"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private static String escapeBraces(String str) {
+		StringBuilder s = null;
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			char escaped = 0;
+			if (c == '\\' && i + 1 < str.length()) {
+				switch (str.charAt(i + 1)) {
+				case '\\':
+					escaped = ESC_SLASH;
+					break;
+				case '{':
+					escaped = ESC_OPEN;
+					break;
+				case '}':
+					escaped = ESC_CLOSE;
+					break;
+				case ',':
+					escaped = ESC_COMMA;
+					break;
+				case '.':
+					escaped = ESC_PERIOD;
+					break;
+				}
+			}
+			if (escaped != 0) {
+				if (s == null) {
+					s = new StringBuilder(str.length()).append(str, 0, i);
+				}
+				s.append(escaped);
+				i++;
+			} else if (s != null) {
+				s.append(c);
+			}
+		}
+		return s == null ? str : s.toString();
+	}
+
+	private static String unescapeBraces(CharSequence str) {
+		StringBuilder s = new StringBuilder(str.length());
+		for (int i = 0; i < str.length(); i++) {
+			char c = str.charAt(i);
+			switch (c) {
+			case ESC_SLASH:
+				s.append("\\\\"); //$NON-NLS-1$
+				break;
+			case ESC_OPEN:
+				s.append("\\{"); //$NON-NLS-1$
+				break;
+			case ESC_CLOSE:
+				s.append("\\}"); //$NON-NLS-1$
+				break;
+			case ESC_COMMA:
+				s.append("\\,"); //$NON-NLS-1$
+				break;
+			case ESC_PERIOD:
+				s.append("\\."); //$NON-NLS-1$
+				break;
+			case LITERAL_OPEN:
+				s.append('{');
+				break;
+			case LITERAL_CLOSE:
+				s.append('}');
+				break;
+			default:
+				s.append(c);
+			}
+		}
+		return s.toString();
+	}
+
+	/**
+	 * The braces found by balanced-match: the first '{' with its matching
+	 * '}'.
+	 */
+	private static class Balanced {
+
+		final String pre;
+		final String body;
+		final String post;
+
+		Balanced(String str, int start, int end) {
+			this.pre = str.substring(0, start);
+			this.body = str.substring(start + 1, end);
+			this.post = str.substring(end + 1);
+		}
+
+		static Balanced of(String str) {
+			int ai = str.indexOf('{');
+			int bi = str.indexOf('}', ai + 1);
+			int i = ai;
+			if (ai < 0 || bi <= 0) {
+				return null;
+			}
+			List<Integer> begs = new ArrayList<Integer>();
+			int left = str.length();
+			int right = -1;
+			while (i >= 0) {
+				if (i == ai) {
+					begs.add(i);
+					ai = str.indexOf('{', i + 1);
+				} else if (begs.size() == 1) {
+					return new Balanced(str, begs.remove(0), bi);
+				} else {
+					int beg = begs.remove(begs.size() - 1);
+					if (beg < left) {
+						left = beg;
+						right = bi;
+					}
+					bi = str.indexOf('}', i + 1);
+				}
+				i = ai < bi && ai >= 0 ? ai : bi;
+			}
+			if (!begs.isEmpty() && right != -1) {
+				return new Balanced(str, left, right);
+			}
+			return null;
+		}
+	}
+
+	private static class Expander {
+
+		private final String pattern;
+		private final int max;
+		// true when the first braces of the pattern are a comma set
+		boolean topOptions;
+
+		Expander(String pattern, int max) {
+			this.pattern = pattern;
+			this.max = max;
+		}
+
+		Node expand(String str, boolean isTop) {
+			Balanced m = Balanced.of(str);
+			if (m == null || m.pre.endsWith("$")) { //$NON-NLS-1$
+				return new Text(str);
+			}
+			boolean isNumericSequence = NUMERIC_SEQUENCE.matcher(m.body).matches();
+			boolean isAlphaSequence = ALPHA_SEQUENCE.matcher(m.body).matches();
+			boolean isSequence = isNumericSequence || isAlphaSequence;
+			boolean isOptions = m.body.indexOf(',') >= 0;
+			if (!isSequence && !isOptions) {
+				// {a},b}
+				if (COMMA_CLOSE.matcher(m.post).find()) {
+					return expand(m.pre + '{' + m.body + LITERAL_CLOSE + m.post, false);
+				}
+				return new Text(str);
+			}
+
+			List<String> n;
+			if (isSequence) {
+				n = Arrays.asList(m.body.split("\\.\\.")); //$NON-NLS-1$
+			} else {
+				n = parseCommaParts(m.body);
+				if (n.size() == 1) {
+					// x{{a,b}}y ==> x{a}y x{b}y
+					n = embrace(expand(n.get(0), false));
+					if (n.size() == 1) {
+						return new Concat(new Text(m.pre + n.get(0)), expandPost(m.post));
+					}
+				}
+			}
+
+			// at this point, n is the parts, and we know it's not a comma set
+			// with a single entry.
+
+			// no need to expand pre, since it is guaranteed to be free of
+			// brace-sets
+			Node choices;
+			if (isSequence) {
+				choices = new Sequence(n, isAlphaSequence);
+			} else {
+				Node[] alternatives = new Node[n.size()];
+				for (int i = 0; i < alternatives.length; i++) {
+					alternatives[i] = expand(n.get(i), false);
+				}
+				choices = new Choice(alternatives);
+			}
+			if (isTop && !isSequence) {
+				topOptions = true;
+			}
+			return new Concat(new Text(m.pre), choices, expandPost(m.post));
+		}
+
+		private Node expandPost(String post) {
+			return post.isEmpty() ? new Text(post) : expand(post, false);
+		}
+
+		// the expansions of node, each between braces.
+		private List<String> embrace(Node node) {
+			if (node.count > max) {
+				throw tooMany(pattern, max);
+			}
+			List<String> n = new ArrayList<String>((int) node.count);
+			StringBuilder s = new StringBuilder();
+			for (long i = 0; i < node.count; i++) {
+				s.setLength(0);
+				s.append('{');
+				node.append(i, s);
+				s.append('}');
+				n.add(s.toString());
+			}
+			return n;
+		}
+
+		private static List<String> parseCommaParts(String str) {
+			List<String> parts = new ArrayList<String>();
+			if (str.isEmpty()) {
+				parts.add(str);
+				return parts;
+			}
+			Balanced m = Balanced.of(str);
+			if (m == null) {
+				return split(str);
+			}
+			List<String> p = split(m.pre);
+			int last = p.size() - 1;
+			p.set(last, p.get(last) + '{' + m.body + '}');
+			List<String> postParts = parseCommaParts(m.post);
+			if (!m.post.isEmpty()) {
+				p.set(last, p.get(last) + postParts.remove(0));
+				p.addAll(postParts);
+			}
+			parts.addAll(p);
+			return parts;
+		}
+
+		// like String.split(',') in JavaScript, which keeps the trailing
+		// empty strings
+		private static List<String> split(String str) {
+			return new ArrayList<String>(Arrays.asList(str.split(",", -1))); //$NON-NLS-1$
+		}
+	}
+
+	private static abstract class Node {
+
+		// the number of expansions, Long.MAX_VALUE when it overflows
+		long count;
+
+		abstract void append(long index, StringBuilder s);
+	}
+
+	private static class Text extends Node {
+
+		private final String text;
+
+		Text(String text) {
+			this.text = text;
+			this.count = 1;
+		}
+
+		@Override
+		void append(long index, StringBuilder s) {
+			s.append(text);
+		}
+	}
+
+	/**
+	 * The expansions of the first part followed by the expansions of the
+	 * next ones, the last part changing first.
+	 */
+	private static class Concat extends Node {
+
+		private final Node[] parts;
+		// the number of expansions of the parts after each part
+		private final long[] strides;
+
+		Concat(Node... parts) {
+			this.parts = parts;
+			this.strides = new long[parts.length];
+			long count = 1;
+			for (int i = parts.length - 1; i >= 0; i--) {
+				strides[i] = count;
+				count = multiply(count, parts[i].count);
+			}
+			this.count = count;
+		}
+
+		@Override
+		void append(long index, StringBuilder s) {
+			for (int i = 0; i < parts.length; i++) {
+				parts[i].append(index / strides[i], s);
+				index %= strides[i];
+			}
+		}
+
+		private static long multiply(long a, long b) {
+			if (a != 0 && b > Long.MAX_VALUE / a) {
+				return Long.MAX_VALUE;
+			}
+			return a * b;
+		}
+	}
+
+	/**
+	 * The expansions of each alternative, one after the other.
+	 */
+	private static class Choice extends Node {
+
+		private final Node[] alternatives;
+
+		Choice(Node[] alternatives) {
+			this.alternatives = alternatives;
+			long count = 0;
+			for (Node alternative : alternatives) {
+				count += alternative.count;
+				if (count < 0) {
+					count = Long.MAX_VALUE;
+				}
+			}
+			this.count = count;
+		}
+
+		@Override
+		void append(long index, StringBuilder s) {
+			for (Node alternative : alternatives) {
+				if (index < alternative.count) {
+					alternative.append(index, s);
+					return;
+				}
+				index -= alternative.count;
+			}
+		}
+	}
+
+	/**
+	 * {1..10}, {01..10..2}, {a..z}: the values are computed on demand.
+	 */
+	private static class Sequence extends Node {
+
+		private final boolean alpha;
+		private final long x;
+		private final long incr;
+		private final int width;
+		private final boolean pad;
+
+		Sequence(List<String> n, boolean alpha) {
+			this.alpha = alpha;
+			try {
+				this.x = numeric(n.get(0));
+				long y = numeric(n.get(1));
+				long incr = n.size() == 3 ? Math.max(Math.abs(numeric(n.get(2))), 1) : 1;
+				this.width = Math.max(n.get(0).length(), n.get(1).length());
+				if (y < x) {
+					incr = -incr;
+				}
+				this.incr = incr;
+				this.count = (y - x) / incr + 1;
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Brace expansion sequence '{" //$NON-NLS-1$
+						+ n + "}' is too large"); //$NON-NLS-1$
+			}
+			boolean pad = false;
+			for (String el : n) {
+				pad |= PADDED.matcher(el).find();
+			}
+			this.pad = pad;
+		}
+
+		private static long numeric(String str) {
+			char c = str.charAt(0);
+			if ((c >= '0' && c <= '9') || (c == '-' && str.length() > 1)) {
+				// keeps (y - x) in the range of a long
+				if (str.length() > 18) {
+					throw new NumberFormatException(str);
+				}
+				return Long.parseLong(str);
+			}
+			return c;
+		}
+
+		@Override
+		void append(long index, StringBuilder s) {
+			long i = x + index * incr;
+			if (alpha) {
+				char c = (char) i;
+				if (c != '\\') {
+					s.append(c);
+				}
+				return;
+			}
+			String c = String.valueOf(i);
+			if (pad) {
+				int need = width - c.length();
+				if (need > 0) {
+					if (i < 0) {
+						s.append('-');
+						c = c.substring(1);
+					}
+					for (int j = 0; j < need; j++) {
+						s.append('0');
+					}
+				}
+			}
+			s.append(c);
+		}
+	}
+}
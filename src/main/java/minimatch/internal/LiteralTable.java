@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal;
+
+import java.util.Collection;
+
+/**
+ * Open addressing hash table of literals which can be looked up with a region
+ * of a {@link CharSequence} without creating a substring. When nocase is true,
+ * ASCII letters are folded like the regexp CASE_INSENSITIVE flag does.
+ */
+public class LiteralTable {
+
+	private final String[] keys;
+	private final int[] indexes;
+	private final int mask;
+	private final boolean nocase;
+	private final int size;
+
+	public LiteralTable(Collection<String> literals, boolean nocase) {
+		this.nocase = nocase;
+		int capacity = 4;
+		while (capacity < literals.size() * 2) {
+			capacity <<= 1;
+		}
+		this.keys = new String[capacity];
+		this.indexes = new int[capacity];
+		this.mask = capacity - 1;
+		int index = 0;
+		int size = 0;
+		for (String literal : literals) {
+			String key = nocase ? toLowerAscii(literal) : literal;
+			int slot = hash(key, 0, key.length()) & mask;
+			while (keys[slot] != null && !keys[slot].equals(key)) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == null) {
+				keys[slot] = key;
+				indexes[slot] = index;
+				size++;
+			}
+			index++;
+		}
+		this.size = size;
+	}
+
+	/**
+	 * Returns the index (in the collection given at construction) of the
+	 * literal equal to the given region or -1.
+	 */
+	public int indexOf(CharSequence s, int start, int end) {
+		int slot = hash(s, start, end) & mask;
+		String key;
+		while ((key = keys[slot]) != null) {
+			if (equals(key, s, start, end)) {
+				return indexes[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	public boolean contains(CharSequence s, int start, int end) {
+		return indexOf(s, start, end) != -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private int hash(CharSequence s, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + fold(s.charAt(i));
+		}
+		return h ^ (h >>> 16);
+	}
+
+	private boolean equals(String key, CharSequence s, int start, int end) {
+		if (key.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < key.length(); i++) {
+			if (key.charAt(i) != fold(s.charAt(start + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private char fold(char c) {
+		return nocase && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+	}
+
+	private static String toLowerAscii(String s) {
+		char[] chars = s.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			if (chars[i] >= 'A' && chars[i] <= 'Z') {
+				chars[i] = (char) (chars[i] + ('a' - 'A'));
+			}
+		}
+		return new String(chars);
+	}
+}
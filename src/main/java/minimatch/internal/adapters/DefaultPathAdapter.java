@@ -23,13 +23,11 @@
  */
 package minimatch.internal.adapters;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import minimatch.Options;
 import minimatch.PathAdapter;
-import minimatch.internal.StringUtils;
 
 /**
  * Default {@link PathAdapter} implementation with String.
@@ -39,18 +37,43 @@ public class DefaultPathAdapter implements PathAdapter<String> {
 
 	public static final PathAdapter<String> INSTANCE = new DefaultPathAdapter();
 
-	private static final Pattern slashSplit = Pattern.compile("/+");
+	private static final ThreadLocal<PathSegments> segments = new ThreadLocal<PathSegments>() {
+		@Override
+		protected PathSegments initialValue() {
+			return new PathSegments();
+		}
+	};
 
 	@Override
 	public List<String> toArray(String path, Options options) {
-
-		// windows: need to use /, not \
-		if (options.isAllowWindowsPaths()) {
-			path = StringUtils.replacePath(path);
+		// treat the test path as a set of pathparts.
+		PathSegments s = new PathSegments().reset(path,
+				options.isAllowWindowsPaths());
+		List<String> parts = new ArrayList<String>(s.size());
+		for (int i = 0; i < s.size(); i++) {
+			parts.add(s.get(i));
 		}
+		return parts;
+	}
 
-		// treat the test path as a set of pathparts.
-		return Arrays.asList(slashSplit.split(path, Integer.MAX_VALUE));
+	/**
+	 * Returns the segments of the given path, recorded as offsets in the path,
+	 * like {@link #INSTANCE} splits it. The returned instance is reused by the
+	 * current thread once {@link PathSegments#release()} has been called.
+	 * 
+	 * @param path
+	 * @param options
+	 * @return the segments of the given path.
+	 */
+	public static PathSegments toSegments(CharSequence path, Options options) {
+		PathSegments s = segments.get();
+		if (!s.acquire()) {
+			// already used by the current thread (reentrant call)
+			s = new PathSegments();
+			s.acquire();
+		}
+		// windows: need to use /, not \
+		return s.reset(path, options.isAllowWindowsPaths());
 	}
 
 }
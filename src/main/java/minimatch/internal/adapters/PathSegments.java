@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.adapters;
+
+import java.util.List;
+
+/**
+ * Segments of a path. When created from a {@link CharSequence}, the segments
+ * are recorded as offsets into the path so that no substring is created; an
+ * instance can be reset and reused for another path.
+ */
+public class PathSegments {
+
+	private CharSequence path;
+	// start/end pairs
+	private int[] bounds = new int[16];
+	private List<String> list;
+	private int size;
+	private boolean inUse;
+
+	/**
+	 * Splits the given path on runs of "/" (and "\" when windows paths are
+	 * allowed), like <code>path.split(/\/+/)</code>: a leading or trailing
+	 * separator gives an empty first or last segment.
+	 * 
+	 * @param path
+	 * @param allowWindowsPaths
+	 * @return this instance.
+	 */
+	public PathSegments reset(CharSequence path, boolean allowWindowsPaths) {
+		this.path = path;
+		this.list = null;
+		this.size = 0;
+		int length = path.length();
+		int start = 0;
+		int i = 0;
+		while (i < length) {
+			char c = path.charAt(i);
+			if (c == '/' || (c == '\\' && allowWindowsPaths)) {
+				add(start, i);
+				// treat a run of separators as one
+				do {
+					i++;
+				} while (i < length && isSeparator(path.charAt(i), allowWindowsPaths));
+				start = i;
+			} else {
+				i++;
+			}
+		}
+		add(start, length);
+		return this;
+	}
+
+	public PathSegments reset(List<String> segments) {
+		this.path = null;
+		this.list = segments;
+		this.size = segments.size();
+		return this;
+	}
+
+	private static boolean isSeparator(char c, boolean allowWindowsPaths) {
+		return c == '/' || (c == '\\' && allowWindowsPaths);
+	}
+
+	private void add(int start, int end) {
+		int index = size * 2;
+		if (index + 1 >= bounds.length) {
+			int[] newBounds = new int[bounds.length * 2];
+			System.arraycopy(bounds, 0, newBounds, 0, bounds.length);
+			bounds = newBounds;
+		}
+		bounds[index] = start;
+		bounds[index + 1] = end;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the char sequence which contains the segment at the given index,
+	 * the segment is between {@link #getStart(int)} and {@link #getEnd(int)}.
+	 */
+	public CharSequence getSource(int index) {
+		return list != null ? list.get(index) : path;
+	}
+
+	public int getStart(int index) {
+		return list != null ? 0 : bounds[index * 2];
+	}
+
+	public int getEnd(int index) {
+		return list != null ? list.get(index).length() : bounds[index * 2 + 1];
+	}
+
+	public int length(int index) {
+		return getEnd(index) - getStart(index);
+	}
+
+	public char charAt(int index, int offset) {
+		return getSource(index).charAt(getStart(index) + offset);
+	}
+
+	/**
+	 * Returns true if the segment at the given index is "." or "..".
+	 */
+	public boolean isDotOrDotDot(int index) {
+		int length = length(index);
+		return (length == 1 || length == 2) && charAt(index, 0) == '.'
+				&& charAt(index, length - 1) == '.';
+	}
+
+	/**
+	 * Returns the segment at the given index as a String (creates a substring
+	 * for a segment of a path).
+	 */
+	public String get(int index) {
+		if (list != null) {
+			return list.get(index);
+		}
+		return path.subSequence(bounds[index * 2], bounds[index * 2 + 1])
+				.toString();
+	}
+
+	boolean acquire() {
+		if (inUse) {
+			return false;
+		}
+		inUse = true;
+		return true;
+	}
+
+	/**
+	 * Releases this instance once the matching is done so that it can be
+	 * reused.
+	 */
+	public void release() {
+		inUse = false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(getSource(i), getStart(i), getEnd(i));
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,183 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import minimatch.Options;
+import minimatch.internal.LiteralTable;
+
+/**
+ * Segment with braces like <code>{a,b,*.txt}</code>: matches when one of the
+ * items of the brace expansion matches. The literal items are looked up in a
+ * hash table, the other ones are tried in order.
+ */
+public class AlternationItem extends ParseItem {
+
+	private final List<String> literals;
+	private final LiteralTable table;
+	private final ParseItem[] items;
+
+	AlternationItem(String source, List<String> literals, List<ParseItem> items) {
+		super(source);
+		this.literals = literals;
+		this.table = literals.isEmpty() ? null : new LiteralTable(literals, false);
+		this.items = items.toArray(new ParseItem[items.size()]);
+	}
+
+	/**
+	 * Creates the item matching the segments which match one of the given
+	 * items: the item itself when there is one, an {@link ExtensionSetItem}
+	 * for <code>*.{js,ts}</code>, an {@link AlternationItem} otherwise.
+	 * 
+	 * @param source
+	 *            the segment of the glob pattern.
+	 * @param alternatives
+	 *            the items of the brace expansion of the segment.
+	 * @param options
+	 * @return the item.
+	 */
+	public static ParseItem create(String source, List<ParseItem> alternatives,
+			Options options) {
+		List<ParseItem> items = new ArrayList<ParseItem>(
+				new LinkedHashSet<ParseItem>(alternatives));
+		if (items.size() == 1) {
+			return items.get(0);
+		}
+		ParseItem extensionSet = createExtensionSet(items, options);
+		if (extensionSet != null) {
+			return extensionSet;
+		}
+		List<String> literals = new ArrayList<String>();
+		List<ParseItem> others = new ArrayList<ParseItem>();
+		for (ParseItem item : items) {
+			if (item instanceof LiteralItem && !options.isNocase()) {
+				literals.add(item.getSource());
+			} else {
+				others.add(item);
+			}
+		}
+		return new AlternationItem(source, literals, others);
+	}
+
+	// *.{js,ts} is *.@(js|ts)
+	private static ParseItem createExtensionSet(List<ParseItem> items,
+			Options options) {
+		String prefix = null;
+		List<String> extensions = new ArrayList<String>();
+		for (ParseItem item : items) {
+			String source = item.getSource();
+			String start = source.substring(0, SegmentMatcher.bodyStart(source));
+			if (prefix == null) {
+				prefix = start;
+			} else if (!prefix.equals(start)) {
+				return null;
+			}
+			if (item instanceof ExtensionSetItem) {
+				extensions.addAll(((ExtensionSetItem) item).getExtensions());
+			} else if (item instanceof SuffixItem) {
+				String suffix = ((SuffixItem) item).getSuffix();
+				String extension = suffix.substring(1);
+				if (!suffix.startsWith(".") || extension.isEmpty() //$NON-NLS-1$
+						|| extension.indexOf('.') != -1 || hasSurrogate(extension)) {
+					return null;
+				}
+				extensions.add(extension);
+			} else {
+				return null;
+			}
+		}
+		StringBuilder re = new StringBuilder(prefix).append(MagicItem.EXTENSION_SET_START);
+		for (int i = 0; i < extensions.size(); i++) {
+			if (i > 0) {
+				re.append('|');
+			}
+			re.append(Pattern.quote(extensions.get(i)));
+		}
+		re.append(')');
+		return new ExtensionSetItem(re.toString(), extensions, options);
+	}
+
+	private static boolean hasSurrogate(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.isSurrogate(s.charAt(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the items of the brace expansion, the literals first.
+	 */
+	public List<ParseItem> getAlternatives() {
+		List<ParseItem> alternatives = new ArrayList<ParseItem>();
+		for (String literal : literals) {
+			alternatives.add(new LiteralItem(literal));
+		}
+		alternatives.addAll(Arrays.asList(items));
+		return alternatives;
+	}
+
+	List<String> getLiterals() {
+		return literals;
+	}
+
+	List<ParseItem> getItems() {
+		return Arrays.asList(items);
+	}
+
+	@Override
+	public boolean match(String input, Options options) {
+		return match(input, 0, input.length(), options);
+	}
+
+	@Override
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		if (table != null && table.contains(source, start, end)) {
+			return true;
+		}
+		for (ParseItem item : items) {
+			if (item.match(source, start, end, options)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder s = new StringBuilder("Alternation("); //$NON-NLS-1$
+		s.append(literals);
+		for (ParseItem item : items) {
+			s.append(", ").append(item); //$NON-NLS-1$
+		}
+		return s.append(')').toString();
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bracket expression of a glob, like <code>[a-z]</code>,
+ * <code>[!._]</code> or <code>[[:alpha:]_]</code>: the chars, ranges, POSIX
+ * classes and escapes between the brackets, negated by a leading
+ * <code>!</code> or <code>^</code>. A <code>]</code> first in the list
+ * represents itself.
+ */
+public class BracketExpression {
+
+	// the ASCII ranges of the POSIX classes, like the regexp \p{Alpha}
+	private static final Map<String, char[]> POSIX_CLASSES = new HashMap<String, char[]>();
+	static {
+		POSIX_CLASSES.put("alnum", new char[] { '0', '9', 'A', 'Z', 'a', 'z' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("alpha", new char[] { 'A', 'Z', 'a', 'z' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("ascii", new char[] { 0, 0x7f }); //$NON-NLS-1$
+		POSIX_CLASSES.put("blank", new char[] { ' ', ' ', '\t', '\t' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("cntrl", new char[] { 0, 0x1f, 0x7f, 0x7f }); //$NON-NLS-1$
+		POSIX_CLASSES.put("digit", new char[] { '0', '9' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("graph", new char[] { 0x21, 0x7e }); //$NON-NLS-1$
+		POSIX_CLASSES.put("lower", new char[] { 'a', 'z' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("print", new char[] { 0x20, 0x7e }); //$NON-NLS-1$
+		POSIX_CLASSES.put("punct", new char[] { '!', '/', ':', '@', '[', '`', //$NON-NLS-1$
+				'{', '~' });
+		POSIX_CLASSES.put("space", new char[] { '\t', '\r', ' ', ' ' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("upper", new char[] { 'A', 'Z' }); //$NON-NLS-1$
+		POSIX_CLASSES.put("word", new char[] { '0', '9', 'A', 'Z', '_', '_', //$NON-NLS-1$
+				'a', 'z' });
+		POSIX_CLASSES.put("xdigit", new char[] { '0', '9', 'A', 'F', 'a', 'f' }); //$NON-NLS-1$
+	}
+
+	private final int end;
+	private final CharClass charClass;
+
+	private BracketExpression(int end, CharClass charClass) {
+		this.end = end;
+		this.charClass = charClass;
+	}
+
+	/**
+	 * Parses the bracket expression which starts after the <code>[</code> at
+	 * the given index.
+	 * 
+	 * @param glob
+	 * @param start
+	 *            the index after the opening bracket.
+	 * @return the expression or null if it isn't closed or isn't valid (a
+	 *         range like <code>z-a</code>, an unknown POSIX class): the
+	 *         opening bracket is then a literal.
+	 */
+	public static BracketExpression parse(String glob, int start) {
+		int length = glob.length();
+		int i = start;
+		boolean negate = false;
+		if (i < length && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) {
+			negate = true;
+			i++;
+		}
+		char[] ranges = new char[8];
+		int size = 0;
+		int first = i;
+		while (i < length) {
+			char c = glob.charAt(i);
+			if (c == ']' && i > first) {
+				return new BracketExpression(i, CharClass.of(negate, ranges, size));
+			}
+			if (c == '[' && i + 1 < length && glob.charAt(i + 1) == ':') {
+				int close = glob.indexOf(":]", i + 2); //$NON-NLS-1$
+				if (close != -1) {
+					char[] posix = POSIX_CLASSES.get(glob.substring(i + 2, close));
+					if (posix == null) {
+						return null;
+					}
+					if (size + posix.length > ranges.length) {
+						ranges = Arrays.copyOf(ranges, Math.max(ranges.length * 2, size + posix.length));
+					}
+					System.arraycopy(posix, 0, ranges, size, posix.length);
+					size += posix.length;
+					i = close + 2;
+					continue;
+				}
+			}
+			char lo = c;
+			if (c == '\\') {
+				if (++i == length) {
+					return null;
+				}
+				lo = glob.charAt(i);
+			}
+			i++;
+			char hi = lo;
+			// a - before the closing bracket represents itself
+			if (i + 1 < length && glob.charAt(i) == '-' && glob.charAt(i + 1) != ']') {
+				hi = glob.charAt(++i);
+				if (hi == '\\') {
+					if (++i == length) {
+						return null;
+					}
+					hi = glob.charAt(i);
+				}
+				if (hi < lo) {
+					return null;
+				}
+				i++;
+			}
+			if (size + 2 > ranges.length) {
+				ranges = Arrays.copyOf(ranges, ranges.length * 2);
+			}
+			ranges[size++] = lo;
+			ranges[size++] = hi;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the index of the closing bracket.
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	public CharClass getCharClass() {
+		return charClass;
+	}
+}
@@ -0,0 +1,231 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A set of chars: a sorted list of disjoint ranges, possibly negated. It is
+ * built from a bracket expression of a glob by {@link BracketExpression}, or
+ * from the character class of a segment regular expression, and matched
+ * without regular expression by {@link SegmentMatcher}.
+ */
+public class CharClass {
+
+	private final boolean negate;
+	// lo/hi pairs
+	private final char[] ranges;
+
+	private CharClass(boolean negate, char[] ranges) {
+		this.negate = negate;
+		this.ranges = ranges;
+	}
+
+	/**
+	 * Creates the class of the given ranges, which are sorted and merged.
+	 * 
+	 * @param negate
+	 *            true if the class matches the chars out of the ranges.
+	 * @param ranges
+	 *            lo/hi pairs, inclusive.
+	 * @param length
+	 *            the number of chars of ranges which are used.
+	 * @return the class.
+	 */
+	static CharClass of(boolean negate, char[] ranges, int length) {
+		int n = length / 2;
+		long[] sorted = new long[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = ((long) ranges[2 * i] << 16) | ranges[2 * i + 1];
+		}
+		Arrays.sort(sorted);
+		char[] merged = new char[length];
+		int size = 0;
+		for (long range : sorted) {
+			char lo = (char) (range >>> 16);
+			char hi = (char) range;
+			if (size > 0 && lo <= merged[size - 1] + 1) {
+				if (hi > merged[size - 1]) {
+					merged[size - 1] = hi;
+				}
+			} else {
+				merged[size++] = lo;
+				merged[size++] = hi;
+			}
+		}
+		return new CharClass(negate, Arrays.copyOf(merged, size));
+	}
+
+	// index of the ] which closes the class which starts at the given [
+	static int endOf(String re, int start) {
+		for (int i = start + 1; i < re.length(); i++) {
+			char c = re.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == ']') {
+				return i;
+			} else if (c == '[') {
+				// union, posix class, etc
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	// parse the body of a class, null if not supported.
+	static CharClass parse(String re, int start, int end) {
+		boolean negate = false;
+		int i = start;
+		if (i < end && re.charAt(i) == '^') {
+			negate = true;
+			i++;
+		}
+		if (i == end) {
+			return null;
+		}
+		StringBuilder ranges = new StringBuilder();
+		boolean afterRange = false;
+		while (i < end) {
+			char lo = re.charAt(i);
+			if (lo == '\\') {
+				if (i + 1 >= end || !SegmentMatcher.isEscapable(re.charAt(i + 1))) {
+					return null;
+				}
+				lo = re.charAt(++i);
+			} else if (lo == '&' && i + 1 < end && re.charAt(i + 1) == '&') {
+				// intersection
+				return null;
+			} else if (lo == '-' && afterRange && i + 1 < end) {
+				// [a-c-e]
+				return null;
+			}
+			if (Character.isHighSurrogate(lo) || Character.isLowSurrogate(lo)) {
+				return null;
+			}
+			i++;
+			char hi = lo;
+			afterRange = false;
+			if (i + 1 < end && re.charAt(i) == '-') {
+				hi = re.charAt(i + 1);
+				if (hi == '\\') {
+					if (i + 2 >= end || !SegmentMatcher.isEscapable(re.charAt(i + 2))) {
+						return null;
+					}
+					hi = re.charAt(i + 2);
+					i++;
+				}
+				if (hi < lo || Character.isHighSurrogate(hi)
+						|| Character.isLowSurrogate(hi)) {
+					return null;
+				}
+				i += 2;
+				afterRange = true;
+			}
+			ranges.append(lo).append(hi);
+		}
+		char[] r = new char[ranges.length()];
+		ranges.getChars(0, r.length, r, 0);
+		return of(negate, r, r.length);
+	}
+
+	/**
+	 * Returns true if the class matches the given char, folding ASCII letters
+	 * when nocase is true like the regexp CASE_INSENSITIVE flag.
+	 */
+	public boolean contains(char c, boolean nocase) {
+		boolean in = inRanges(c);
+		if (!in && nocase && SegmentMatcher.isAsciiLetter(c)) {
+			in = inRanges(SegmentMatcher.toggleCase(c));
+		}
+		return in != negate;
+	}
+
+	void addBoundaries(BitSet boundaries) {
+		for (int i = 0; i < ranges.length; i += 2) {
+			boundaries.set(ranges[i]);
+			boundaries.set(ranges[i + 1] + 1);
+		}
+	}
+
+	void write(DataOutput out) throws IOException {
+		out.writeBoolean(negate);
+		ItemWriter.writeChars(out, ranges);
+	}
+
+	static CharClass read(ByteBuffer in) throws IOException {
+		boolean negate = in.get() != 0;
+		char[] ranges = ItemReader.readChars(in);
+		if (ranges.length % 2 != 0) {
+			throw new IOException("Invalid char class ranges"); //$NON-NLS-1$
+		}
+		return of(negate, ranges, ranges.length);
+	}
+
+	private boolean inRanges(char c) {
+		char[] ranges = this.ranges;
+		for (int i = 0; i < ranges.length; i += 2) {
+			if (c >= ranges[i] && c <= ranges[i + 1]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the class as a regular expression which {@link SegmentMatcher}
+	 * compiles back to the same class: every char which is not a letter or a
+	 * digit is escaped.
+	 */
+	public String toRegex() {
+		StringBuilder re = new StringBuilder(ranges.length * 2 + 3);
+		re.append('[');
+		if (negate) {
+			re.append('^');
+		}
+		for (int i = 0; i < ranges.length; i += 2) {
+			appendChar(re, ranges[i]);
+			if (ranges[i + 1] != ranges[i]) {
+				re.append('-');
+				appendChar(re, ranges[i + 1]);
+			}
+		}
+		return re.append(']').toString();
+	}
+
+	private static void appendChar(StringBuilder re, char c) {
+		if (SegmentMatcher.isEscapable(c)) {
+			re.append('\\');
+		}
+		re.append(c);
+	}
+
+	@Override
+	public String toString() {
+		return toRegex();
+	}
+}
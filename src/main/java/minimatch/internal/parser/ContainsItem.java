@@ -0,0 +1,63 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import minimatch.Options;
+
+/**
+ * Segment like <code>*test*</code>.
+ */
+public class ContainsItem extends LiteralMagicItem {
+
+	private final String literal;
+
+	public ContainsItem(String source, String literal, Options options) {
+		super(source, options);
+		this.literal = literal;
+	}
+
+	public String getLiteral() {
+		return literal;
+	}
+
+	@Override
+	protected boolean matchLiteral(CharSequence input, int start, int end) {
+		int last = end - literal.length();
+		if (!nocase && input instanceof String) {
+			int index = ((String) input).indexOf(literal, start);
+			return index != -1 && index <= last;
+		}
+		for (int i = start; i <= last; i++) {
+			if (SegmentMatcher.regionMatches(input, i, literal, nocase)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return "Contains(\"" + literal + "\")";
+	}
+}
@@ -27,6 +27,12 @@ import minimatch.Options;
 
 public class GlobStar extends ParseItem {
 
+	/**
+	 * The globstar of the compiled sets: entries are compared with it by
+	 * identity.
+	 */
+	public static final GlobStar INSTANCE = new GlobStar();
+
 	public GlobStar() {
 		super(null);
 	}
@@ -36,6 +42,12 @@ public class GlobStar extends ParseItem {
 		throw new UnsupportedOperationException();
 	}
 
+	@Override
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		throw new UnsupportedOperationException();
+	}
+
 	@Override
 	public String toString() {
 		return "GlobStar";
@@ -0,0 +1,154 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import minimatch.Options;
+
+/**
+ * Reads the items written by {@link ItemWriter}. The buffer is read from its
+ * position, with its byte order, which must be the big endian order of
+ * {@link java.io.DataOutput}.
+ */
+public class ItemReader {
+
+	private final ByteBuffer in;
+	private final Options options;
+	// the items read so far, by index for the references
+	private final List<ParseItem> items = new ArrayList<ParseItem>();
+
+	/**
+	 * @param in
+	 * @param options
+	 *            the options the items were compiled with.
+	 */
+	public ItemReader(ByteBuffer in, Options options) {
+		this.in = in;
+		this.options = options;
+	}
+
+	/**
+	 * Reads the next item.
+	 * 
+	 * @return the item.
+	 * @throws IOException
+	 *             if the item is not valid.
+	 * @throws java.nio.BufferUnderflowException
+	 *             if the buffer ends before the item.
+	 */
+	public ParseItem read() throws IOException {
+		byte tag = in.get();
+		ParseItem item;
+		switch (tag) {
+		case ItemWriter.REFERENCE:
+			int index = in.getInt();
+			if (index < 0 || index >= items.size()) {
+				throw new IOException("Invalid item reference: " + index); //$NON-NLS-1$
+			}
+			return items.get(index);
+		case ItemWriter.GLOBSTAR:
+			return GlobStar.INSTANCE;
+		case ItemWriter.LITERAL:
+			item = new LiteralItem(readString());
+			break;
+		case ItemWriter.PREFIX:
+			item = new PrefixItem(readString(), readString(), options);
+			break;
+		case ItemWriter.SUFFIX:
+			item = new SuffixItem(readString(), readString(), options);
+			break;
+		case ItemWriter.CONTAINS:
+			item = new ContainsItem(readString(), readString(), options);
+			break;
+		case ItemWriter.EXTENSION_SET:
+			item = new ExtensionSetItem(readString(), readStrings(), options);
+			break;
+		case ItemWriter.ALTERNATION:
+			String source = readString();
+			List<String> literals = readStrings();
+			int size = readLength(in, 1);
+			List<ParseItem> others = new ArrayList<ParseItem>(size);
+			for (int i = 0; i < size; i++) {
+				others.add(read());
+			}
+			item = new AlternationItem(source, literals, others);
+			break;
+		case ItemWriter.MAGIC:
+			source = readString();
+			SegmentMatcher matcher = in.get() != 0 ? SegmentMatcher.read(in,
+					source, options.isNocase()) : null;
+			// without matcher, the regular expression is compiled on the
+			// first match.
+			item = new MagicItem(source, matcher, options);
+			break;
+		default:
+			throw new IOException("Invalid item tag: " + tag); //$NON-NLS-1$
+		}
+		items.add(item);
+		return item;
+	}
+
+	/**
+	 * Reads a string written by {@link ItemWriter#writeString(String)}.
+	 */
+	public String readString() throws IOException {
+		return new String(readChars(in));
+	}
+
+	private List<String> readStrings() throws IOException {
+		int size = readLength(in, 4);
+		List<String> strings = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			strings.add(readString());
+		}
+		return strings;
+	}
+
+	static char[] readChars(ByteBuffer in) throws IOException {
+		// one bulk get: the char views of the buffers copy char by char.
+		byte[] bytes = new byte[readLength(in, 2) * 2];
+		in.get(bytes);
+		char[] chars = new char[bytes.length / 2];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) ((bytes[2 * i] & 0xff) << 8 | bytes[2 * i + 1] & 0xff);
+		}
+		return chars;
+	}
+
+	/**
+	 * Reads a length, checking that the buffer has enough bytes left for the
+	 * elements so that a corrupted length doesn't allocate a huge array.
+	 */
+	static int readLength(ByteBuffer in, int elementSize) throws IOException {
+		int length = in.getInt();
+		if (length < 0 || length > in.remaining() / elementSize) {
+			throw new IOException("Invalid length: " + length); //$NON-NLS-1$
+		}
+		return length;
+	}
+}
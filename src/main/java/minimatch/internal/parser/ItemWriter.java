@@ -0,0 +1,148 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the items of compiled sets in the binary format read by
+ * {@link ItemReader}. Each item is a tag followed by what its constructor
+ * needs, so that reading it back parses nothing: the instructions of a
+ * {@link SegmentMatcher} are written instead of being compiled again from the
+ * regular expression.
+ * 
+ * An item written twice, like the segments shared by the expansions of
+ * braces, is written once and then referenced by its index.
+ */
+public class ItemWriter {
+
+	static final byte LITERAL = 0;
+	static final byte GLOBSTAR = 1;
+	static final byte MAGIC = 2;
+	static final byte PREFIX = 3;
+	static final byte SUFFIX = 4;
+	static final byte CONTAINS = 5;
+	static final byte EXTENSION_SET = 6;
+	static final byte ALTERNATION = 7;
+	static final byte REFERENCE = 8;
+
+	private final DataOutput out;
+	private final Map<ParseItem, Integer> written = new IdentityHashMap<ParseItem, Integer>();
+
+	public ItemWriter(DataOutput out) {
+		this.out = out;
+	}
+
+	/**
+	 * Writes the given item.
+	 * 
+	 * @param item
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if the item is not one of the items built by the parser.
+	 */
+	public void write(ParseItem item) throws IOException {
+		if (item instanceof LazyItem) {
+			// written parsed
+			item = ((LazyItem) item).get();
+		}
+		Integer index = written.get(item);
+		if (index != null) {
+			out.writeByte(REFERENCE);
+			out.writeInt(index.intValue());
+			return;
+		}
+		if (item instanceof GlobStar) {
+			out.writeByte(GLOBSTAR);
+			return;
+		}
+		if (item instanceof LiteralItem) {
+			out.writeByte(LITERAL);
+			writeString(item.getSource());
+		} else if (item instanceof PrefixItem) {
+			out.writeByte(PREFIX);
+			writeString(item.getSource());
+			writeString(((PrefixItem) item).getPrefix());
+		} else if (item instanceof SuffixItem) {
+			out.writeByte(SUFFIX);
+			writeString(item.getSource());
+			writeString(((SuffixItem) item).getSuffix());
+		} else if (item instanceof ContainsItem) {
+			out.writeByte(CONTAINS);
+			writeString(item.getSource());
+			writeString(((ContainsItem) item).getLiteral());
+		} else if (item instanceof ExtensionSetItem) {
+			out.writeByte(EXTENSION_SET);
+			writeString(item.getSource());
+			writeStrings(((ExtensionSetItem) item).getExtensions());
+		} else if (item instanceof AlternationItem) {
+			AlternationItem alternation = (AlternationItem) item;
+			List<ParseItem> others = alternation.getItems();
+			out.writeByte(ALTERNATION);
+			writeString(item.getSource());
+			writeStrings(alternation.getLiterals());
+			out.writeInt(others.size());
+			for (ParseItem other : others) {
+				write(other);
+			}
+		} else if (item != null && item.getClass() == MagicItem.class) {
+			SegmentMatcher matcher = ((MagicItem) item).getMatcher();
+			out.writeByte(MAGIC);
+			writeString(item.getSource());
+			out.writeBoolean(matcher != null);
+			if (matcher != null) {
+				matcher.write(out);
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported item: " + item); //$NON-NLS-1$
+		}
+		written.put(item, Integer.valueOf(written.size()));
+	}
+
+	/**
+	 * Writes the length of the given string and its chars.
+	 */
+	public void writeString(String s) throws IOException {
+		out.writeInt(s.length());
+		out.writeChars(s);
+	}
+
+	private void writeStrings(List<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String s : strings) {
+			writeString(s);
+		}
+	}
+
+	static void writeChars(DataOutput out, char[] chars) throws IOException {
+		out.writeInt(chars.length);
+		for (char c : chars) {
+			out.writeChar(c);
+		}
+	}
+}
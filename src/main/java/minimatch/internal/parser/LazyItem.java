@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.util.function.Function;
+
+import minimatch.Options;
+
+/**
+ * A segment of the glob which is parsed the first time it's matched, see
+ * {@link Options#setLazy(boolean)}. Its source is the segment of the glob.
+ */
+public class LazyItem extends ParseItem {
+
+	private final Function<String, ParseItem> compiler;
+	// racy single-check: threads which match the segment for the first time
+	// concurrently may each parse it, which is harmless since the items are
+	// equal and immutable (final or volatile fields only) so they are safely
+	// published without synchronization.
+	private ParseItem item;
+
+	/**
+	 * @param glob
+	 *            the segment of the glob.
+	 * @param compiler
+	 *            parses the segment.
+	 */
+	public LazyItem(String glob, Function<String, ParseItem> compiler) {
+		super(glob);
+		this.compiler = compiler;
+	}
+
+	/**
+	 * Returns the parsed segment, parsing it on the first call.
+	 */
+	public ParseItem get() {
+		ParseItem item = this.item;
+		if (item == null) {
+			this.item = item = compiler.apply(getSource());
+		}
+		return item;
+	}
+
+	@Override
+	public boolean match(String f, Options options) {
+		return get().match(f, options);
+	}
+
+	@Override
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		return get().match(source, start, end, options);
+	}
+
+	/**
+	 * Lazy items are equal when they have the same segment and compiler: the
+	 * compiler of a Minimatch parses with its options.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && ((LazyItem) obj).compiler == compiler;
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return "Lazy(\"" + getSource() + "\")";
+	}
+}
@@ -38,6 +38,32 @@ public class LiteralItem extends ParseItem {
 				.equals(getSource());
 	}
 	
+	@Override
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		String literal = getSource();
+		int length = literal.length();
+		if (end - start != length) {
+			return false;
+		}
+		if (source instanceof String) {
+			return ((String) source).regionMatches(options.isNocase(), start,
+					literal, 0, length);
+		}
+		boolean nocase = options.isNocase();
+		for (int i = 0; i < length; i++) {
+			char c1 = source.charAt(start + i);
+			char c2 = literal.charAt(i);
+			if (c1 != c2
+					&& !(nocase && (Character.toUpperCase(c1) == Character
+							.toUpperCase(c2) || Character.toLowerCase(c1) == Character
+							.toLowerCase(c2)))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		// TODO Auto-generated method stub
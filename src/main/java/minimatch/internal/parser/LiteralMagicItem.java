@@ -0,0 +1,52 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import minimatch.Options;
+
+/**
+ * Base class for magic segments which are matched with literal comparisons
+ * instead of a regular expression.
+ */
+public abstract class LiteralMagicItem extends MagicItem {
+
+	public LiteralMagicItem(String source, Options options) {
+		super(source, null, options);
+	}
+
+	@Override
+	protected boolean accept(CharSequence input, int start, int end) {
+		return SegmentMatcher.accept(input, start, end, dotRule, false);
+	}
+
+	@Override
+	protected boolean matchSegment(CharSequence input, int start, int end) {
+		return SegmentMatcher.matchesStart(input, start, end, dotRule, notEmpty)
+				&& matchLiteral(input, start, end);
+	}
+
+	protected abstract boolean matchLiteral(CharSequence input, int start,
+			int end);
+
+}
@@ -23,6 +23,8 @@
  */
 package minimatch.internal.parser;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -30,20 +32,191 @@ import minimatch.Options;
 
 public class MagicItem extends ParseItem {
 
-	private final Pattern pattern;
+	static final String EXTENSION_SET_START = "[^/]*?\\.(?:";
+
+	private final SegmentMatcher matcher;
+	private final int flags;
+	private volatile Pattern pattern;
+
+	protected final boolean nocase;
+	protected final int dotRule;
+	protected final boolean notEmpty;
 
 	public MagicItem(String source, Options options) {
+		this(source, SegmentMatcher.compile(source, options.isNocase()), options);
+		if (matcher == null) {
+			// extglob, etc: use the regexp.
+			this.pattern = compile();
+		}
+	}
+
+	protected MagicItem(String source, SegmentMatcher matcher, Options options) {
 		super(source);
-		this.pattern = Pattern.compile("^" + source + "$",
-				options.isNocase() ? Pattern.CASE_INSENSITIVE : 0);
+		this.matcher = matcher;
+		this.nocase = options.isNocase();
+		this.flags = nocase ? Pattern.CASE_INSENSITIVE : 0;
+		this.dotRule = SegmentMatcher.dotRule(source);
+		this.notEmpty = SegmentMatcher.isNotEmpty(source);
+	}
+
+	/**
+	 * Returns the regex-free matcher of the segment, null when the regular
+	 * expression must be used.
+	 */
+	SegmentMatcher getMatcher() {
+		return matcher;
+	}
+
+	/**
+	 * Returns true if the item never matches a segment which a globstar
+	 * can't swallow: '.' and '..', and the ones starting with '.' when dot is
+	 * false.
+	 * 
+	 * @param dot
+	 *            the dot option.
+	 * @return true if the segments matched by the item are matched by a
+	 *         globstar.
+	 */
+	public boolean excludesDotSegments(boolean dot) {
+		return dotRule == SegmentMatcher.DOT_HIDDEN
+				|| (dot && dotRule == SegmentMatcher.DOT_RELATIVE);
+	}
+
+	/**
+	 * Creates the item for the given segment regular expression: a
+	 * {@link PrefixItem}, {@link SuffixItem}, {@link ContainsItem} or
+	 * {@link ExtensionSetItem} when the segment has one of those shapes, a
+	 * {@link MagicItem} otherwise.
+	 * 
+	 * @param source
+	 *            the regular expression built by the parser.
+	 * @param options
+	 * @return the item.
+	 */
+	public static ParseItem create(String source, Options options) {
+		SegmentMatcher matcher = SegmentMatcher.compile(source, options.isNocase());
+		if (matcher == null) {
+			ParseItem item = createExtensionSet(source, options);
+			return item != null ? item : new MagicItem(source, options);
+		}
+		int size = matcher.size();
+		if (size > 1) {
+			boolean starFirst = matcher.isStar(0);
+			boolean starLast = matcher.isStar(size - 1);
+			if (starFirst && starLast) {
+				// *test*
+				String literal = matcher.getLiteral(1, size - 1);
+				if (literal != null) {
+					return new ContainsItem(source, literal, options);
+				}
+			} else if (starFirst) {
+				// *.java
+				String literal = matcher.getLiteral(1, size);
+				if (literal != null) {
+					return new SuffixItem(source, literal, options);
+				}
+			} else if (starLast) {
+				// foo*
+				String literal = matcher.getLiteral(0, size - 1);
+				if (literal != null) {
+					return new PrefixItem(source, literal, options);
+				}
+			}
+		}
+		return new MagicItem(source, matcher, options);
+	}
+
+	// *.@(js|ts)
+	private static ParseItem createExtensionSet(String source, Options options) {
+		int i = SegmentMatcher.bodyStart(source);
+		if (!source.startsWith(EXTENSION_SET_START, i) || !source.endsWith(")")) {
+			return null;
+		}
+		List<String> extensions = new ArrayList<String>();
+		StringBuilder extension = new StringBuilder();
+		int end = source.length() - 1;
+		for (i += EXTENSION_SET_START.length(); i < end; i++) {
+			char c = source.charAt(i);
+			if (c == '|') {
+				extensions.add(extension.toString());
+				extension.setLength(0);
+				continue;
+			}
+			if (c == '\\' && i + 1 < end && isPunctuation(source.charAt(i + 1))) {
+				c = source.charAt(++i);
+			} else if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+				return null;
+			}
+			if (c == '.' || Character.isHighSurrogate(c)
+					|| Character.isLowSurrogate(c)) {
+				return null;
+			}
+			extension.append(c);
+		}
+		extensions.add(extension.toString());
+		return new ExtensionSetItem(source, extensions, options);
+	}
+
+	private static boolean isPunctuation(char c) {
+		return c < 128 && !Character.isLetterOrDigit(c);
 	}
 
 	@Override
 	public boolean match(String input, Options options) {
-		Matcher m = pattern.matcher(input);
+		int length = input.length();
+		if (accept(input, 0, length)) {
+			return matchSegment(input, 0, length);
+		}
+		Matcher m = getPattern().matcher(input);
+		return m.matches();
+	}
+
+	@Override
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		if (accept(source, start, end)) {
+			return matchSegment(source, start, end);
+		}
+		Matcher m = getPattern().matcher(source);
+		m.region(start, end);
 		return m.matches();
 	}
 
+	/**
+	 * Returns true if the input can be matched with
+	 * {@link #matchSegment(CharSequence, int, int)} instead of the regular
+	 * expression.
+	 */
+	protected boolean accept(CharSequence input, int start, int end) {
+		return matcher != null && matcher.accept(input, start, end);
+	}
+
+	protected boolean matchSegment(CharSequence input, int start, int end) {
+		return matcher.matches(input, start, end);
+	}
+
+	private Pattern getPattern() {
+		Pattern pattern = this.pattern;
+		if (pattern == null) {
+			this.pattern = pattern = compile();
+		}
+		return pattern;
+	}
+
+	private Pattern compile() {
+		return Pattern.compile("^" + getSource() + "$", flags);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return super.equals(obj) && ((MagicItem) obj).nocase == nocase;
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode() + (nocase ? 1 : 0);
+	}
+
 	@Override
 	public String toString() {
 		return "RegExp(\"" + getSource() + "\")";
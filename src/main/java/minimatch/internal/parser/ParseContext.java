@@ -25,8 +25,11 @@ package minimatch.internal.parser;
 
 public class ParseContext {
 
+	// no state char
+	public static final char NONE = 0;
+
 	// State char
-	public Character stateChar;
-	public String re = "";
+	public char stateChar = NONE;
+	public final StringBuilder re = new StringBuilder();
 	public boolean hasMagic;
 }
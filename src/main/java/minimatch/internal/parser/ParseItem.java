@@ -41,4 +41,41 @@ public abstract class ParseItem {
 
 	public abstract boolean match(String f, Options options);
 
+	/**
+	 * Matches the segment of the given source between start (inclusive) and
+	 * end (exclusive) without creating a substring when possible.
+	 * 
+	 * @param source
+	 * @param start
+	 * @param end
+	 * @param options
+	 * @return true if the segment matches.
+	 */
+	public boolean match(CharSequence source, int start, int end,
+			Options options) {
+		return match(source.subSequence(start, end).toString(), options);
+	}
+
+	/**
+	 * Items are equal when they have the same type and source, so they match
+	 * the same segments.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || obj.getClass() != getClass()) {
+			return false;
+		}
+		String other = ((ParseItem) obj).source;
+		return source == null ? other == null : source.equals(other);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * getClass().hashCode()
+				+ (source == null ? 0 : source.hashCode());
+	}
+
 }
@@ -0,0 +1,497 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Regex-free matcher for a path segment. It is compiled from the regular
+ * expression produced by the parser when it only contains literals,
+ * <code>*</code>, <code>?</code> and plain character classes, and matches with
+ * a two-pointer wildcard algorithm which doesn't allocate anything.
+ * 
+ * Extglob constructs and anything else which is not understood are not
+ * compiled: {@link #compile(String, boolean)} returns null and the regular
+ * expression must be used.
+ */
+public class SegmentMatcher {
+
+	// the segment may start with a dot (pattern starts with a dot)
+	public static final int DOT_ALLOWED = 0;
+	// not a ^ followed by a dot, see (?!\.)
+	public static final int DOT_HIDDEN = 1;
+	// not "." or "..", see (?!(?:^|\/)\.{1,2}(?:$|\/))
+	public static final int DOT_RELATIVE = 2;
+
+	private static final String NO_DOT = "(?!\\.)";
+	private static final String NO_RELATIVE = "(?!(?:^|\\/)\\.{1,2}(?:$|\\/))";
+	private static final String NOT_EMPTY = "(?=.)";
+	private static final String STAR = "[^/]*?";
+	private static final String QMARK = "[^/]";
+
+	private static final byte LITERAL = 0;
+	private static final byte ANY = 1;
+	private static final byte STAR_OP = 2;
+	private static final byte CLASS = 3;
+
+	private final byte[] ops;
+	private final char[] chars;
+	private final CharClass[] classes;
+	private final boolean nocase;
+	private final int dotRule;
+	private final boolean notEmpty;
+	private final boolean singleChars;
+
+	private SegmentMatcher(byte[] ops, char[] chars, CharClass[] classes,
+			boolean nocase, int dotRule, boolean notEmpty) {
+		this.ops = ops;
+		this.chars = chars;
+		this.classes = classes;
+		this.nocase = nocase;
+		this.dotRule = dotRule;
+		this.notEmpty = notEmpty;
+		boolean singleChars = false;
+		for (byte op : ops) {
+			if (op == ANY || op == CLASS) {
+				singleChars = true;
+			}
+		}
+		this.singleChars = singleChars;
+	}
+
+	/**
+	 * Compiles the given segment regular expression.
+	 * 
+	 * @param re
+	 *            the regular expression built by the parser.
+	 * @param nocase
+	 *            true if the match is case insensitive.
+	 * @return the matcher or null if the regular expression is not supported.
+	 */
+	public static SegmentMatcher compile(String re, boolean nocase) {
+		int dotRule = dotRule(re);
+		boolean notEmpty = isNotEmpty(re);
+		int i = bodyStart(re);
+
+		int length = re.length();
+		List<Object> tokens = new ArrayList<Object>();
+		while (i < length) {
+			if (re.startsWith(STAR, i)) {
+				if (tokens.isEmpty() || tokens.get(tokens.size() - 1) != STAR) {
+					tokens.add(STAR);
+				}
+				i += STAR.length();
+				continue;
+			}
+			if (re.startsWith(QMARK, i)) {
+				tokens.add(QMARK);
+				i += QMARK.length();
+				continue;
+			}
+			char c = re.charAt(i);
+			if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+				return null;
+			}
+			switch (c) {
+			case '\\':
+				if (i + 1 >= length || !isEscapable(re.charAt(i + 1))) {
+					return null;
+				}
+				tokens.add(Character.valueOf(re.charAt(i + 1)));
+				i += 2;
+				continue;
+			case '[':
+				int end = CharClass.endOf(re, i);
+				if (end == -1) {
+					return null;
+				}
+				CharClass cc = CharClass.parse(re, i + 1, end);
+				if (cc == null) {
+					return null;
+				}
+				tokens.add(cc);
+				i = end + 1;
+				continue;
+			case '.':
+			case '$':
+			case '^':
+			case '|':
+			case '(':
+			case ')':
+			case '?':
+			case '*':
+			case '+':
+			case '{':
+			case '}':
+			case ']':
+				// regexp stuff (extglob, etc), not supported.
+				return null;
+			default:
+				tokens.add(Character.valueOf(c));
+				i++;
+			}
+		}
+
+		int size = tokens.size();
+		byte[] ops = new byte[size];
+		char[] chars = new char[size];
+		CharClass[] classes = null;
+		for (int j = 0; j < size; j++) {
+			Object token = tokens.get(j);
+			if (token == STAR) {
+				ops[j] = STAR_OP;
+			} else if (token == QMARK) {
+				ops[j] = ANY;
+			} else if (token instanceof CharClass) {
+				ops[j] = CLASS;
+				if (classes == null) {
+					classes = new CharClass[size];
+				}
+				classes[j] = (CharClass) token;
+			} else {
+				ops[j] = LITERAL;
+				chars[j] = ((Character) token).charValue();
+			}
+		}
+		return new SegmentMatcher(ops, chars, classes, nocase, dotRule, notEmpty);
+	}
+
+	/**
+	 * Writes the instructions of the matcher, which {@link #read} reads back
+	 * without parsing the regular expression again.
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(ops.length);
+		for (int i = 0; i < ops.length; i++) {
+			out.writeByte(ops[i]);
+			if (ops[i] == LITERAL) {
+				out.writeChar(chars[i]);
+			} else if (ops[i] == CLASS) {
+				classes[i].write(out);
+			}
+		}
+	}
+
+	/**
+	 * Reads the instructions written by {@link #write(DataOutput)}.
+	 * 
+	 * @param in
+	 * @param re
+	 *            the segment regular expression the matcher was compiled from,
+	 *            which gives the dot rule and the non empty lookahead.
+	 * @param nocase
+	 * @return the matcher.
+	 * @throws IOException
+	 *             if an instruction is not valid.
+	 */
+	static SegmentMatcher read(ByteBuffer in, String re, boolean nocase)
+			throws IOException {
+		int size = ItemReader.readLength(in, 1);
+		byte[] ops = new byte[size];
+		char[] chars = new char[size];
+		CharClass[] classes = null;
+		for (int i = 0; i < size; i++) {
+			ops[i] = in.get();
+			switch (ops[i]) {
+			case LITERAL:
+				chars[i] = in.getChar();
+				break;
+			case CLASS:
+				if (classes == null) {
+					classes = new CharClass[size];
+				}
+				classes[i] = CharClass.read(in);
+				break;
+			case ANY:
+			case STAR_OP:
+				break;
+			default:
+				throw new IOException("Invalid segment instruction: " + ops[i]); //$NON-NLS-1$
+			}
+		}
+		return new SegmentMatcher(ops, chars, classes, nocase, dotRule(re),
+				isNotEmpty(re));
+	}
+
+	/**
+	 * Returns the dot rule of the given segment regular expression.
+	 * 
+	 * @param re
+	 * @return {@link #DOT_ALLOWED}, {@link #DOT_HIDDEN} or {@link #DOT_RELATIVE}
+	 */
+	static int dotRule(String re) {
+		if (re.startsWith(NO_DOT)) {
+			return DOT_HIDDEN;
+		}
+		if (re.startsWith(NO_RELATIVE)) {
+			return DOT_RELATIVE;
+		}
+		return DOT_ALLOWED;
+	}
+
+	static boolean isNotEmpty(String re) {
+		return re.startsWith(NOT_EMPTY, prefixLength(dotRule(re)));
+	}
+
+	/**
+	 * Returns the index of the segment regular expression after the dot and
+	 * non empty lookaheads.
+	 */
+	static int bodyStart(String re) {
+		int i = prefixLength(dotRule(re));
+		return re.startsWith(NOT_EMPTY, i) ? i + NOT_EMPTY.length() : i;
+	}
+
+	private static int prefixLength(int dotRule) {
+		switch (dotRule) {
+		case DOT_HIDDEN:
+			return NO_DOT.length();
+		case DOT_RELATIVE:
+			return NO_RELATIVE.length();
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns true if the input can be matched without regular expression.
+	 * Line terminators are not matched by the regexp "." of (?=.) and "$", and
+	 * "?" or classes match a full surrogate pair, those (rare) inputs must be
+	 * matched with the regular expression.
+	 * 
+	 * @param input
+	 * @param start
+	 * @param end
+	 * @return true if {@link #matches(CharSequence, int, int)} can be used.
+	 */
+	public boolean accept(CharSequence input, int start, int end) {
+		return accept(input, start, end, dotRule, singleChars);
+	}
+
+	static boolean accept(CharSequence input, int start, int end, int dotRule,
+			boolean singleChars) {
+		if (start == end) {
+			return true;
+		}
+		if (isLineTerminator(input.charAt(start))) {
+			return false;
+		}
+		if (dotRule == DOT_RELATIVE && end - start <= 3) {
+			for (int i = start; i < end; i++) {
+				if (isLineTerminator(input.charAt(i))) {
+					return false;
+				}
+			}
+		}
+		if (singleChars) {
+			for (int i = start; i < end; i++) {
+				char c = input.charAt(i);
+				if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks the dot rule and the non empty lookahead.
+	 */
+	static boolean matchesStart(CharSequence input, int start, int end,
+			int dotRule, boolean notEmpty) {
+		if (start == end) {
+			return !notEmpty;
+		}
+		if (input.charAt(start) == '.') {
+			switch (dotRule) {
+			case DOT_HIDDEN:
+				return false;
+			case DOT_RELATIVE:
+				int length = end - start;
+				return !(length == 1 || (length == 2 && input.charAt(start + 1) == '.'));
+			}
+		}
+		return true;
+	}
+
+	public boolean matches(CharSequence input, int start, int end) {
+		if (!matchesStart(input, start, end, dotRule, notEmpty)) {
+			return false;
+		}
+
+		byte[] ops = this.ops;
+		int n = ops.length;
+		int p = 0;
+		int s = start;
+		int starP = -1;
+		int starS = -1;
+		while (s < end) {
+			if (p < n) {
+				byte op = ops[p];
+				if (op == STAR_OP) {
+					// remember where to backtrack and try to match nothing.
+					starP = ++p;
+					starS = s;
+					continue;
+				}
+				if (matchChar(op, p, input.charAt(s))) {
+					p++;
+					s++;
+					continue;
+				}
+			}
+			if (starP != -1) {
+				// the last star swallows one more character.
+				p = starP;
+				s = ++starS;
+				continue;
+			}
+			return false;
+		}
+		while (p < n && ops[p] == STAR_OP) {
+			p++;
+		}
+		return p == n;
+	}
+
+	public int getDotRule() {
+		return dotRule;
+	}
+
+	public boolean isNotEmpty() {
+		return notEmpty;
+	}
+
+	/**
+	 * Returns the number of instructions.
+	 */
+	public int size() {
+		return ops.length;
+	}
+
+	public boolean isStar(int index) {
+		return ops[index] == STAR_OP;
+	}
+
+	/**
+	 * Returns the literal made of the instructions between from (inclusive) and
+	 * to (exclusive) or null if one of them is not a literal.
+	 */
+	public String getLiteral(int from, int to) {
+		StringBuilder literal = new StringBuilder(to - from);
+		for (int i = from; i < to; i++) {
+			if (ops[i] != LITERAL) {
+				return null;
+			}
+			literal.append(chars[i]);
+		}
+		return literal.toString();
+	}
+
+	/**
+	 * Returns true if the input region which starts at offset is the given
+	 * literal, folding ASCII letters when nocase is true like the regexp
+	 * CASE_INSENSITIVE flag.
+	 */
+	static boolean regionMatches(CharSequence input, int offset,
+			String literal, boolean nocase) {
+		if (!nocase && input instanceof String) {
+			return ((String) input).startsWith(literal, offset);
+		}
+		for (int i = 0; i < literal.length(); i++) {
+			char c = input.charAt(offset + i);
+			char expected = literal.charAt(i);
+			if (c != expected
+					&& !(nocase && isAsciiLetter(c) && toggleCase(c) == expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the instruction at the given index matches the given
+	 * char of a segment: a star matches any of them.
+	 */
+	public boolean matchesChar(int index, char c) {
+		return ops[index] == STAR_OP ? c != '/' : matchChar(ops[index], index, c);
+	}
+
+	/**
+	 * Sets the bits of the chars where the instructions may start or stop
+	 * matching, when walking the chars in order: the chars between two
+	 * consecutive bits are all matched the same way.
+	 */
+	public void addBoundaries(BitSet boundaries) {
+		for (int i = 0; i < ops.length; i++) {
+			if (ops[i] == LITERAL) {
+				boundaries.set(chars[i]);
+				boundaries.set(chars[i] + 1);
+			} else if (ops[i] == CLASS) {
+				classes[i].addBoundaries(boundaries);
+			}
+		}
+		boundaries.set('/');
+		boundaries.set('/' + 1);
+		if (nocase) {
+			// letters are folded, see toggleCase
+			boundaries.set('A', 'Z' + 2);
+			boundaries.set('a', 'z' + 2);
+		}
+	}
+
+	private boolean matchChar(byte op, int p, char c) {
+		switch (op) {
+		case LITERAL:
+			char expected = chars[p];
+			return expected == c || (nocase && isAsciiLetter(c) && toggleCase(c) == expected);
+		case ANY:
+			return c != '/';
+		default:
+			return classes[p].contains(c, nocase);
+		}
+	}
+
+	static boolean isEscapable(char c) {
+		return !(Character.isLetterOrDigit(c) || Character.isHighSurrogate(c) || Character
+				.isLowSurrogate(c));
+	}
+
+	static boolean isAsciiLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	static char toggleCase(char c) {
+		return (char) (c ^ 0x20);
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+}
@@ -0,0 +1,55 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.internal.parser;
+
+import minimatch.Options;
+
+/**
+ * Segment like <code>*.java</code>.
+ */
+public class SuffixItem extends LiteralMagicItem {
+
+	private final String suffix;
+
+	public SuffixItem(String source, String suffix, Options options) {
+		super(source, options);
+		this.suffix = suffix;
+	}
+
+	public String getSuffix() {
+		return suffix;
+	}
+
+	@Override
+	protected boolean matchLiteral(CharSequence input, int start, int end) {
+		int offset = end - suffix.length();
+		return offset >= start
+				&& SegmentMatcher.regionMatches(input, offset, suffix, nocase);
+	}
+
+	@Override
+	public String toString() {
+		return "Suffix(\"" + suffix + "\")";
+	}
+}
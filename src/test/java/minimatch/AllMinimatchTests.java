@@ -29,9 +29,32 @@ import org.junit.runners.Suite;
 import minimatch.isaacs.ExtglobEndingWithStateChar;
 import minimatch.isaacs.Patterns;
 import minimatch.isaacs.TrickyNegations;
+import minimatch.java.BatchMatchTest;
+import minimatch.java.BraceExpansionTest;
+import minimatch.java.BraceSegmentsTest;
+import minimatch.java.CompiledSetTest;
+import minimatch.java.DirectoryPrunerTest;
+import minimatch.java.EntryFilterTest;
+import minimatch.java.PathAutomatonTest;
+import minimatch.java.ParserTest;
+import minimatch.java.BracketExpressionTest;
 import minimatch.java.FootTest;
+import minimatch.java.GlobStarTest;
+import minimatch.java.GlobTest;
+import minimatch.java.ImmutableMinimatchTest;
+import minimatch.java.MinimatchCacheTest;
+import minimatch.java.SegmentInternerTest;
 import minimatch.java.PatternWichStartsWithExcludeTest;
+import minimatch.java.ParallelGlobTest;
+import minimatch.java.PathSegmentsTest;
+import minimatch.java.PatternSetTest;
+import minimatch.java.PatternSetFormatTest;
+import minimatch.java.LazyItemTest;
+import minimatch.java.RuleListTest;
 import minimatch.java.PatternWichStartsWithSlashTest;
+import minimatch.java.SegmentItemsTest;
+import minimatch.java.SegmentMatcherTest;
+import minimatch.java.SortedBatchTest;
 import minimatch.java.TrickyNegationsToFix;
 
 @RunWith(Suite.class)
@@ -43,6 +66,29 @@ import minimatch.java.TrickyNegationsToFix;
 	PatternWichStartsWithExcludeTest.class,
 	PatternWichStartsWithSlashTest.class,
 	TrickyNegationsToFix.class,
+	MinimatchCacheTest.class,
+	SegmentInternerTest.class,
+	SegmentMatcherTest.class,
+	SegmentItemsTest.class,
+	PathSegmentsTest.class,
+	GlobStarTest.class,
+	PatternSetTest.class,
+	PatternSetFormatTest.class,
+	LazyItemTest.class,
+	RuleListTest.class,
+	DirectoryPrunerTest.class,
+	GlobTest.class,
+	ParallelGlobTest.class,
+	BraceExpansionTest.class,
+	BraceSegmentsTest.class,
+	CompiledSetTest.class,
+	ImmutableMinimatchTest.class,
+	BatchMatchTest.class,
+	SortedBatchTest.class,
+	EntryFilterTest.class,
+	PathAutomatonTest.class,
+	ParserTest.class,
+	BracketExpressionTest.class,
 })
 
 public class AllMinimatchTests {
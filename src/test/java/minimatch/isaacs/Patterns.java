@@ -125,10 +125,7 @@ public class Patterns extends AbstractMinimatchTest {
 				{new Test("[abc-]", lst("-"), lst("-"))},
 				{new Test("\\", lst("\\"), lst("\\"))},
 				{new Test("[\\\\]", lst("\\"), lst("\\"))},
-				// RegExp "[[]" is not allowed in Java
-				// {new Test("[[]", lst("["), lst("["))},
-				// Cover this case with 2 special tests
-				{new Test("[[]", lst("[[]"), lst("[[]"))},
+				{new Test("[[]", lst("["), lst("["))},
 				{new Test("[\\[]", lst("["), lst("["))},
 				{new Test("[", lst("["), lst("["))},
 				{new Test("[*", lst("[abc"), lst("[abc"))},	
@@ -156,9 +153,7 @@ public class Patterns extends AbstractMinimatchTest {
 				// [ pattern, [matches], MM opts, files, TAP opts]
 				/* onestar/twostar */
 				{new Test("{/*,*}", lst(), lst("/asdf/asdf/asdf"))},
-				/* XXX - implement braces expansion
 				{new Test("{/?,*}", lst("/a", "bb"), lst("/a", "/b/b", "/a/b/c", "bb"))},
-				*/
 
 				// dots should not match unless requested",
 				{new Test("**", lst("a/b"), lst("a/b", "a/.d", ".a/.d"))},
@@ -193,9 +188,7 @@ public class Patterns extends AbstractMinimatchTest {
 				// bash/bsdglob says this:
 				// {new Test("*(a|{b),c)}", lst("*(a|{b),c)}"), lst("a", "ab", "ac", "ad"]]
 				// but we do this instead:
-				/* XXX - implement brace expansion
 				{new Test("*(a|{b),c)}", lst("a", "ab", "ac"), lst("a", "ab", "ac", "ad"))},
-				*/
 
 				// test partial parsing in the presence of comment/negation chars
 				{new Test("[!a*", lst("[!ab"), lst("[!ab", "[ab"))},
@@ -207,7 +200,6 @@ public class Patterns extends AbstractMinimatchTest {
 						lst("+(a|b\\|c\\\\|d\\\\|e\\\\\\\\|f\\\\\\\\|g", "a", "b\\c"))},
 
 				// crazy nested {,,} and *(||) tests.
-				/* XXX - implement brace expansion
 				{new SetFiles(
 						"a", "b", "c", "d", "ab", "ac", "ad", "bc", "cb", "bc,d",
 						"c,db", "c,d", "d)", "(b|c", "*(b|c", "b|c", "b|cc", "cb|c",
@@ -219,12 +211,9 @@ public class Patterns extends AbstractMinimatchTest {
 				// *(b|d)
 				{new Test("{a,*(b|{c,d})}", lst("a", "b", "bc", "cb", "c", "d"))},
 				{new Test("*(a|{b|c,c})", lst("a", "b", "c", "ab", "ac", "bc", "cb"))},
-				*/
 						
 				// test various flag settings.
-				/* XXX - implement brace expansion
 				{new Test("*(a|{b|c,c})", lst("x(a|b|c)", "x(a|c)", "(a|b|c)", "(a|c)"), new Options().setNoext(true))},
-				*/
 				{new Test("a?b", lst("x/y/acb", "acb/"), lst("x/y/acb", "acb/", "acb/d/e", "x/y/acb/d"), new Options().setMatchBase(true))},
 				{new Test("#*", lst("#a", "#b"), lst("#a", "#b", "c#d"), new Options().setNocomment(true))},
 
@@ -279,6 +268,45 @@ public class Patterns extends AbstractMinimatchTest {
 	public Patterns(ITestCase testCase) {
 		super(testCase);
 	}
+
+	/**
+	 * Returns the patterns of the tests with their options (without
+	 * debugger) and the files they are matched against, used as the workload
+	 * of the benchmarks.
+	 */
+	public static List<Case> corpus() {
+		List<Case> corpus = new ArrayList<Case>();
+		for (Object[] parameters : patterns()) {
+			ITestCase testCase = (ITestCase) parameters[0];
+			if (testCase instanceof Test) {
+				Test test = (Test) testCase;
+				corpus.add(new Case(test.pattern, new Options(test.options)
+						.setDebugger(null), new ArrayList<String>(test.files)));
+			} else {
+				// add or set the files of the next tests
+				testCase.run();
+			}
+		}
+		return corpus;
+	}
+
+	public static class Case {
+
+		public final String pattern;
+		public final Options options;
+		public final List<String> files;
+
+		Case(String pattern, Options options, List<String> files) {
+			this.pattern = pattern;
+			this.options = options;
+			this.files = files;
+		}
+
+		@Override
+		public String toString() {
+			return pattern;
+		}
+	}
 	
 	private static class Test extends AbstractTestCase {
 
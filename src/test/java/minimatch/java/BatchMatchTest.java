@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the matching of batches of paths.
+ */
+@SuppressWarnings("nls")
+public class BatchMatchTest {
+
+	private static final List<String> PATHS = Arrays.asList("a.js", "b.ts",
+			"lib/c.js", ".d.js", "lib/e/f.js", "g.java", "lib/", "");
+
+	@Test
+	public void filter() {
+		// Given
+		Minimatch mm = new Minimatch("**/*.js");
+		// when
+		List<String> matches = mm.filter(PATHS);
+		// then
+		Assert.assertEquals(Arrays.asList("a.js", "lib/c.js", "lib/e/f.js"),
+				matches);
+	}
+
+	@Test
+	public void filterSameAsMatch() {
+		String[] patterns = { "*.js", "lib/**", "!*.js", "#comment", "",
+				"{a,b}.*", "lib/" };
+		for (String pattern : patterns) {
+			// Given
+			Minimatch mm = new Minimatch(pattern);
+			List<String> expected = new ArrayList<String>();
+			for (String path : PATHS) {
+				if (mm.match(path)) {
+					expected.add(path);
+				}
+			}
+			// then
+			Assert.assertEquals(pattern, expected, mm.filter(PATHS));
+			Assert.assertEquals(pattern, expected, mm.filter(PATHS, true));
+			Assert.assertEquals(pattern, expected,
+					PATHS.stream().filter(mm.asPredicate()).collect(Collectors.toList()));
+		}
+	}
+
+	@Test
+	public void matchAll() {
+		// Given
+		Minimatch mm = new Minimatch("lib/*.js");
+		String[] paths = PATHS.toArray(new String[PATHS.size()]);
+		boolean[] out = new boolean[paths.length];
+		// when
+		mm.matchAll(paths, out);
+		// then
+		for (int i = 0; i < paths.length; i++) {
+			Assert.assertEquals(paths[i], mm.match(paths[i]), out[i]);
+		}
+		Assert.assertTrue(out[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void matchAllWithShortOut() {
+		new Minimatch("*.js").matchAll(new String[] { "a.js", "b.js" },
+				new boolean[1]);
+	}
+
+	@Test
+	public void parallelCollector() {
+		// Given
+		List<String> paths = new ArrayList<String>();
+		for (int i = 0; i < 10000; i++) {
+			paths.add("src/" + i % 7 + "/file" + i + (i % 3 == 0 ? ".js" : ".ts"));
+		}
+		Minimatch mm = new Minimatch("src/{1,3}/*.js");
+		// when
+		List<String> matches = paths.parallelStream().collect(mm.filtering());
+		// then
+		Assert.assertEquals(mm.filter(paths), matches);
+	}
+
+	@Test
+	public void staticFilter() {
+		Assert.assertEquals(Arrays.asList(".d.js"), PATHS.stream()
+				.filter(Minimatch.filter(".*.js", new Options()))
+				.collect(Collectors.toList()));
+		Assert.assertEquals(Arrays.asList("a.js", ".d.js"), PATHS.stream()
+				.filter(Minimatch.filter("*.js", new Options().setDot(true)))
+				.collect(Collectors.toList()));
+	}
+}
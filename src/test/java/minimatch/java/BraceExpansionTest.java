@@ -0,0 +1,153 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.internal.BraceExpansion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests of https://github.com/juliangruber/brace-expansion
+ */
+@SuppressWarnings("nls")
+public class BraceExpansionTest {
+
+	@Test
+	public void options() {
+		assertExpand("a{b,c{d,e},{f,g}h}x{y,z}", "abxy", "abxz", "acdxy", "acdxz",
+				"acexy", "acexz", "afhxy", "afhxz", "aghxy", "aghxz");
+		assertExpand("a{,b}c", "ac", "abc");
+		assertExpand("{,b}", "b");
+		assertExpand("{a,b}{,c}", "a", "ac", "b", "bc");
+		assertExpand("src/{a,b}/**/*.{js,ts}", "src/a/**/*.js", "src/a/**/*.ts",
+				"src/b/**/*.js", "src/b/**/*.ts");
+	}
+
+	@Test
+	public void sequences() {
+		assertExpand("{1..3}", "1", "2", "3");
+		assertExpand("{3..1}", "3", "2", "1");
+		assertExpand("{10..8}", "10", "9", "8");
+		assertExpand("{1..10..3}", "1", "4", "7", "10");
+		assertExpand("{01..10..3}", "01", "04", "07", "10");
+		assertExpand("{-05..5..5}", "-05", "000", "005");
+		assertExpand("{a..c}", "a", "b", "c");
+		assertExpand("{a..g..3}", "a", "d", "g");
+		assertExpand("{Z..a}", "Z", "[", "", "]", "^", "_", "`", "a");
+		assertExpand("x{1..2}y{a..b}", "x1ya", "x1yb", "x2ya", "x2yb");
+	}
+
+	@Test
+	public void dollar() {
+		assertExpand("${1..3}", "${1..3}");
+		assertExpand("${a,b}${c,d}", "${a,b}${c,d}");
+		assertExpand("x${a,b}x${c,d}x", "x${a,b}x${c,d}x");
+	}
+
+	@Test
+	public void unbalanced() {
+		assertExpand("{}", "{}");
+		assertExpand("a{}b", "a{}b");
+		assertExpand("{},a}b", "{},a}b");
+		assertExpand("a{},b}c", "a}c", "abc");
+		assertExpand("{a},b}", "a}", "b");
+		assertExpand("{{a,b}}", "{a}", "{b}");
+		assertExpand("x{{a,b}}y", "x{a}y", "x{b}y");
+		assertExpand("a{b", "a{b");
+	}
+
+	@Test
+	public void escapes() {
+		assertExpand("\\{a,b}", "\\{a,b}");
+		assertExpand("a{b\\,c,d}", "ab\\,c", "ad");
+		assertExpand("{a\\.\\.b}", "{a\\.\\.b}");
+	}
+
+	@Test
+	public void lazy() {
+		// Given
+		BraceExpansion expansion = new BraceExpansion("{1..1000000}{a,b}", 2000000);
+		// when
+		Iterator<String> iterator = expansion.iterator();
+		// then
+		Assert.assertEquals(2000000, expansion.size());
+		Assert.assertEquals("1a", iterator.next());
+		Assert.assertEquals("1b", iterator.next());
+		Assert.assertEquals("2a", iterator.next());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tooManyExpansions() {
+		new Minimatch("{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}{a,b}");
+	}
+
+	@Test
+	public void maxBraceExpansions() {
+		// Given
+		Options options = new Options().setMaxBraceExpansions(4);
+		// when
+		Iterable<String> expansions = Minimatch.braceExpand("{a,b}{c,d}", options);
+		// then
+		Assert.assertEquals("[ac, ad, bc, bd]", list(expansions).toString());
+		try {
+			Minimatch.braceExpand("{a,b}{c,d,e}", options);
+			Assert.fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertEquals("[{a,b}]", list(Minimatch.braceExpand("{a,b}",
+				new Options().setNobrace(true))).toString());
+	}
+
+	@Test
+	public void match() {
+		Minimatch mm = new Minimatch("src/{a,b}/**/*.{js,ts}");
+		Assert.assertTrue(mm.match("src/a/x/y.js"));
+		Assert.assertTrue(mm.match("src/b/y.ts"));
+		Assert.assertFalse(mm.match("src/c/y.ts"));
+		Assert.assertFalse(mm.match("src/a/y.css"));
+		Assert.assertTrue(Minimatch.minimatch("file7.txt", "file{1..9}.txt"));
+	}
+
+	private static void assertExpand(String pattern, String... expected) {
+		Assert.assertEquals(pattern, Arrays.asList(expected),
+				Arrays.asList(new BraceExpansion(pattern, 1000).toArray()));
+	}
+
+	private static List<String> list(Iterable<String> iterable) {
+		List<String> list = new ArrayList<String>();
+		for (String s : iterable) {
+			list.add(s);
+		}
+		return list;
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import minimatch.Debugger;
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the patterns with braces which are compiled segment by segment
+ * instead of being expanded as a whole.
+ */
+@SuppressWarnings("nls")
+public class BraceSegmentsTest {
+
+	private static final String[] PATHS = { "a", "b", "a/d", "a/d/g",
+			"a/d/g/x.js", "c/f/i/x.tsx", "c/f/i/.x.ts", "b/e/h/x.jsx",
+			"b/e/h/x.json", "a/x/g/x.js", "src/a1", "src/a3", "src/a4", "src/b",
+			"x.js", "x.JS", "lib/x.ts", "lib/y/x.ts", "lib/y/z/x.ts", "a/{b,c}",
+			"a/b,c", "ab/c", "a/c", "a/b/c", "foo.d.ts", "foo.txt", "fooc",
+			"test/a.spec.js", "test/foo.js", "test/foo" };
+
+	@Test
+	public void oneEntry() {
+		assertSet("{a,b,c}/{d,e,f}/{g,h,i}/*.{js,ts,jsx,tsx}",
+				"[[Alternation([a, b, c]), Alternation([d, e, f]), "
+						+ "Alternation([g, h, i]), ExtensionSet([js, ts, jsx, tsx])]]");
+		assertSet("src/a{1..3}",
+				"[[Literal(\"src\"), Alternation([a1, a2, a3])]]");
+		assertSet("test/{*.spec.js,foo}",
+				"[[Literal(\"test\"), Alternation([foo], Suffix(\".spec.js\"))]]");
+	}
+
+	@Test
+	public void fallback() {
+		// braces around a '/', globstar and empty options are expanded as
+		// a whole
+		assertSetSize("{a/b,c}/d", 2);
+		assertSetSize("lib/{**,y}/*.ts", 2);
+		assertSetSize("{,b}/c", 2);
+		assertSetSize("${a,b}/c", 1);
+	}
+
+	@Test
+	public void sameAsExpansion() {
+		String[] patterns = { "{a,b,c}/{d,e,f}/{g,h,i}/*.{js,ts,jsx,tsx}",
+				"a/{x,d}/g/*.js", "src/a{1..3}", "*.{js,ts}", "*.{JS,ts}",
+				"lib/{**,y}/*.ts", "lib/**/*.{ts,js}", "a/{b,c}", "a/\\{b,c}",
+				"a/{b\\,c,d}", "a{,b}/c", "{a,b}{,c}", "a/{b,{c,d}}",
+				"*.{d.ts,txt}", "foo{.txt,c}", "test/{*.spec.js,foo}",
+				"!{a,b}", "*.{+(js),ts}", "?/{c,?}" };
+		for (String pattern : patterns) {
+			for (int i = 0; i < 5; i++) {
+				assertSameAsExpansion(pattern, options(i), options(i)
+						.setNobrace(true));
+			}
+		}
+	}
+
+	private static Options options(int i) {
+		switch (i) {
+		case 1:
+			return new Options().setDot(true);
+		case 2:
+			return new Options().setNocase(true);
+		case 3:
+			return new Options().setNoglobstar(true);
+		case 4:
+			return new Options().setMatchBase(true);
+		default:
+			return new Options();
+		}
+	}
+
+	private static void assertSameAsExpansion(String pattern, Options options,
+			Options nobrace) {
+		// Given
+		Minimatch mm = new Minimatch(pattern, options);
+		List<Minimatch> expanded = new ArrayList<Minimatch>();
+		boolean negate = pattern.startsWith("!");
+		for (String expansion : Minimatch.braceExpand(negate ? pattern
+				.substring(1) : pattern, options)) {
+			expanded.add(new Minimatch(expansion, nobrace));
+		}
+		for (String path : PATHS) {
+			// when
+			boolean expected = false;
+			for (Minimatch e : expanded) {
+				expected |= e.match(path);
+			}
+			// then
+			Assert.assertEquals(pattern + " " + options + " " + path,
+					negate ? !expected : expected, mm.match(path));
+		}
+	}
+
+	private static void assertSet(String pattern, String expected) {
+		// Given
+		String set = set(pattern);
+		// then
+		Assert.assertTrue(set, set.contains(expected));
+	}
+
+	private static void assertSetSize(String pattern, int size) {
+		// Given
+		String set = set(pattern);
+		// then
+		Assert.assertEquals(set, size, set.split("\\], \\[").length);
+	}
+
+	private static String set(String pattern) {
+		final StringBuilder trace = new StringBuilder();
+		Options options = new Options().setDebugger(new Debugger() {
+			@Override
+			public void debug(String pattern, Object... arguments) {
+				trace.setLength(0);
+				trace.append(String.format(pattern, arguments));
+			}
+		});
+		// when
+		new Minimatch(pattern, options);
+		return trace.toString();
+	}
+}
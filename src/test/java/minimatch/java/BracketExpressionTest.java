@@ -0,0 +1,103 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import minimatch.Minimatch;
+import minimatch.internal.parser.BracketExpression;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the bracket expressions of the globs, parsed without compiling a
+ * regexp.
+ */
+@SuppressWarnings("nls")
+public class BracketExpressionTest {
+
+	@Test
+	public void ranges() {
+		assertClass("[a-c]", "a-c");
+		assertClass("[\\-a-c]", "abc-");
+		assertClass("[\\-a-ce]", "a-c-e");
+		assertClass("[a-z]", "a-mn-z");
+	}
+
+	@Test
+	public void negation() {
+		assertClass("[^a-c]", "!a-c");
+		assertClass("[^a-c]", "^a-c");
+		// a ] first in the list is a literal
+		assertClass("[^\\]a]", "!]a");
+		assertClass("[\\-\\]]", "]-");
+	}
+
+	@Test
+	public void posixClasses() {
+		assertClass("[A-Za-z]", "[:alpha:]");
+		assertClass("[0-9A-Z\\_]", "[:digit:][:upper:]_");
+		Assert.assertNull(BracketExpression.parse("[[:foo:]]", 1));
+	}
+
+	@Test
+	public void escapes() {
+		assertClass("[\\]a-b]", "a\\]b");
+		assertClass("[\\\\]", "\\\\");
+		assertClass("[\\[]", "[");
+	}
+
+	@Test
+	public void invalid() {
+		// Given
+		String[] patterns = { "[z-a]", "[abc", "[", "[!" };
+		for (String pattern : patterns) {
+			// when
+			BracketExpression expr = BracketExpression.parse(pattern, 1);
+			// then
+			Assert.assertNull(pattern, expr);
+		}
+		Assert.assertTrue(new Minimatch("[z-a]").match("[z-a]"));
+	}
+
+	@Test
+	public void match() {
+		// Given
+		Minimatch mm = new Minimatch("[[:upper:]]*.[!ch]");
+		// when/then
+		Assert.assertFalse(mm.match("Foo.h"));
+		Assert.assertTrue(mm.match("Foo.o"));
+		Assert.assertFalse(mm.match("Foo.c"));
+		Assert.assertFalse(mm.match("foo.o"));
+		Assert.assertTrue(new Minimatch("a[]]b").match("a]b"));
+		Assert.assertTrue(new Minimatch("[[]").match("["));
+	}
+
+	private static void assertClass(String expected, String list) {
+		String glob = "[" + list + "]";
+		BracketExpression expr = BracketExpression.parse(glob, 1);
+		Assert.assertNotNull(glob, expr);
+		Assert.assertEquals(glob, glob.length() - 1, expr.getEnd());
+		Assert.assertEquals(glob, expected, expr.getCharClass().toRegex());
+	}
+}
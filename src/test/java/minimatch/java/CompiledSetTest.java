@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the removal of the redundant entries of the compiled set.
+ */
+@SuppressWarnings("nls")
+public class CompiledSetTest {
+
+	private static final String[] PATHS = { "a", "a/b", "a/b/c", "a/.b/c",
+			"a/b/.c", "a/../c", "a/./c", "a/b/c/d", "x/b/c", "a/", "a/b/" };
+
+	@Test
+	public void duplicates() {
+		assertSetSize("{a,a}/b/{c/d,c/d}", 1);
+		assertSetSize("{a/b,a/b,c/d}", 2);
+	}
+
+	@Test
+	public void subsumed() {
+		assertSetSize("{a/**,a/b/*}", 1);
+		assertSetSize("{a/**,a/b/c,a/**/b}", 1);
+		assertSetSize("{**,a/b/c}", 1);
+		assertSetSize("{a/**,a/b/}", 1);
+	}
+
+	@Test
+	public void notSubsumed() {
+		// ** doesn't swallow hidden segments
+		assertSetSize("{a/**,a/.b/c}", 2);
+		assertSetSize("{a/**,a/.*/c}", 2);
+		assertSetSize("{a/**,a/b/..}", 2);
+		assertSetSize("{a/**,x/b/c}", 2);
+		assertSetSize("{a/b/**,a}", 2);
+		// ** doesn't swallow . and .. with the dot option
+		assertSetSize("{a/**,a/b/..}", 2, new Options().setDot(true));
+		assertSetSize("{a/**,a/.*/c}", 2, new Options().setDot(true));
+		// no globstar
+		assertSetSize("{a/**,a/b/c}", 2, new Options().setNoglobstar(true));
+	}
+
+	@Test
+	public void dot() {
+		assertSetSize("{a/**,a/.b/c,a/*/c}", 1, new Options().setDot(true));
+	}
+
+	@Test
+	public void sameMatches() {
+		String[] patterns = { "{a/**,a/b/*}", "{a/**,a/.b/c}", "{a/**,a/b/..}",
+				"{a/**,a/.*/c}", "{a/**,a/b/}", "{a/b,a/b/c,a/**}", "{**,x/b/c}" };
+		for (String pattern : patterns) {
+			assertSameMatches(pattern, new Options(), new Options().setNobrace(true));
+			assertSameMatches(pattern, new Options().setDot(true),
+					new Options().setDot(true).setNobrace(true));
+		}
+	}
+
+	@Test
+	public void literalsFirst() {
+		// Given
+		Minimatch mm = new Minimatch("{a/*,a/b/c,x/*}");
+		// then
+		Assert.assertEquals(3, mm.getSetSize());
+		Assert.assertTrue(mm.match("a/b/c"));
+		Assert.assertTrue(mm.match("x/y"));
+		Assert.assertFalse(mm.match("b/c"));
+	}
+
+	@Test
+	public void comment() {
+		Assert.assertEquals(0, new Minimatch("#a").getSetSize());
+	}
+
+	private static void assertSameMatches(String pattern, Options options,
+			Options nobrace) {
+		// Given
+		Minimatch mm = new Minimatch(pattern, options);
+		for (String path : PATHS) {
+			// when
+			boolean expected = false;
+			for (String expansion : Minimatch.braceExpand(pattern, options)) {
+				expected |= new Minimatch(expansion, nobrace).match(path);
+			}
+			// then
+			Assert.assertEquals(pattern + " " + path, expected, mm.match(path));
+		}
+	}
+
+	private static void assertSetSize(String pattern, int size) {
+		assertSetSize(pattern, size, new Options());
+	}
+
+	private static void assertSetSize(String pattern, int size, Options options) {
+		// Given
+		Minimatch mm = new Minimatch(pattern, options);
+		// then
+		Assert.assertEquals(pattern, size, mm.getSetSize());
+	}
+}
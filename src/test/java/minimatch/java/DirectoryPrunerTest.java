@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.PatternSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class DirectoryPrunerTest {
+
+	private static final List<String> PATTERNS = Arrays.asList("a/b/*.js",
+			"a/**/c", "src/main/**", "*.txt", "**/*.md", "a/b", "a/b/",
+			"!a/x/**", "a/[bc]/d", "/abs/*", "a/+(b|c)/**/d", "#a/**",
+			"**/.x/b", "x/**/y/**/z", "*/b");
+
+	private static final String[] SEGMENTS = { "a", "b", "c", "d", "x", "y",
+			"z", ".x", "e.js", "f.md" };
+
+	private static final String[] DIRS = { "", "/", "a", "a/", "a/b", "a/b/",
+			"a/b/c", "a/x", "b", "src", "src/main", "src/test", ".x", "a/.x",
+			"x/y", "x/a/b", "/abs", "z" };
+
+	@Test
+	public void minimatch() {
+		// Given
+		Minimatch mm = new Minimatch("src/main/**/*.java");
+		// when
+		boolean main = mm.canMatchDescendant("src/main/java");
+		// then
+		Assert.assertTrue(main);
+		Assert.assertTrue(mm.canMatchDescendant("src"));
+		Assert.assertTrue(mm.canMatchDescendant(""));
+		Assert.assertFalse(mm.canMatchDescendant("src/test"));
+		Assert.assertFalse(mm.canMatchDescendant("target"));
+		Assert.assertFalse(mm.canMatchDescendant("src/main/.git"));
+		Assert.assertFalse(new Minimatch("a/b").canMatchDescendant("a/b"));
+		Assert.assertTrue(new Minimatch("a/b").canMatchDescendant("a/"));
+	}
+
+	@Test
+	public void patternSet() {
+		// Given
+		PatternSet set = new PatternSet(Arrays.asList("src/main/**/*.java", "docs/*.md"));
+		// when
+		boolean docs = set.canMatchDescendant("docs");
+		// then
+		Assert.assertTrue(docs);
+		Assert.assertFalse(set.canMatchDescendant("docs/x"));
+		Assert.assertFalse(set.canMatchDescendant("lib"));
+		Assert.assertTrue(set.canMatchDescendant("src/main/a/b"));
+	}
+
+	@Test
+	public void noMatchBelowPrunedDirectory() {
+		for (Options options : new Options[] { new Options(), new Options().setDot(true),
+				new Options().setMatchBase(true), new Options().setFlipNegate(true) }) {
+			PatternSet set = new PatternSet(PATTERNS, options);
+			for (String dir : DIRS) {
+				boolean any = false;
+				for (int i = 0; i < PATTERNS.size(); i++) {
+					Minimatch mm = set.getMinimatch(i);
+					boolean can = mm.canMatchDescendant(dir);
+					boolean matched = false;
+					for (String path : descendants(dir)) {
+						matched |= mm.match(path);
+					}
+					if (!can) {
+						Assert.assertFalse(PATTERNS.get(i) + " below " + dir, matched);
+					}
+					any |= can;
+				}
+				Assert.assertEquals(dir, any, set.canMatchDescendant(dir));
+			}
+		}
+	}
+
+	private static List<String> descendants(String dir) {
+		String prefix = dir.isEmpty() || dir.endsWith("/") ? dir : dir + "/";
+		List<String> paths = new ArrayList<String>();
+		for (String s1 : SEGMENTS) {
+			paths.add(prefix + s1);
+			for (String s2 : SEGMENTS) {
+				paths.add(prefix + s1 + "/" + s2);
+				for (String s3 : SEGMENTS) {
+					paths.add(prefix + s1 + "/" + s2 + "/" + s3);
+				}
+			}
+		}
+		return paths;
+	}
+}
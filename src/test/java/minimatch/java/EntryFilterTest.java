@@ -0,0 +1,72 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.PathAdapter;
+import minimatch.internal.adapters.DefaultPathAdapter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the cheap checks on the path string (literal prefix, segment
+ * counts, suffix and literals) done before a path is split in segments.
+ */
+@SuppressWarnings("nls")
+public class EntryFilterTest {
+
+	// splits like the default adapter, without the checks on the string
+	private static final PathAdapter<String> SPLIT = new PathAdapter<String>() {
+		@Override
+		public List<String> toArray(String path, Options options) {
+			return DefaultPathAdapter.INSTANCE.toArray(path, options);
+		}
+	};
+
+	@Test
+	public void sameAsSegments() {
+		PathCorpus.assertSameAsMinimatch(new PathCorpus.Compiler() {
+			@Override
+			public PathCorpus.Matcher compile(List<String> patterns, Options options) {
+				final List<Minimatch> compiled = PathCorpus.compile(patterns, options);
+				return new PathCorpus.Matcher() {
+					@Override
+					public boolean match(int pattern, String path, boolean partial) {
+						return compiled.get(pattern).match(path, SPLIT, partial);
+					}
+				};
+			}
+		});
+	}
+
+	@Test
+	public void literalPrefix() {
+		Assert.assertEquals("src/main/java",
+				new Minimatch("src/main/java/**/*Test.java").getLiteralPrefix());
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Random;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GlobStarTest {
+
+	@Test(timeout = 5000)
+	public void manyGlobStarsOnDeepPath() {
+		// Given
+		StringBuilder path = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			path.append("a/");
+		}
+		path.append("b");
+		Minimatch mm = new Minimatch("**/a/**/a/**/a/**/a/**/a/**/a/**/a/**/c");
+		// when
+		boolean match = mm.match(path.toString());
+		// then
+		Assert.assertFalse(match);
+		Assert.assertTrue(mm.match(path.toString(), true));
+	}
+
+	@Test(timeout = 5000)
+	public void manyGlobStarsWithMagicOnDeepPath() {
+		// Given
+		StringBuilder path = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			path.append("x/");
+		}
+		path.append("y.js");
+		Minimatch mm = new Minimatch("**/x*/**/*/**/x/**/?/**/*.ts");
+		// when
+		boolean match = mm.match(path.toString());
+		// then
+		Assert.assertFalse(match);
+		Assert.assertTrue(new Minimatch("**/x*/**/*/**/x/**/?/**/*.js").match(path.toString()));
+	}
+
+	@Test
+	public void globStarDoesNotSwallowDots() {
+		Assert.assertFalse(Minimatch.minimatch("a/.b/c/d", "a/**/c/**/d"));
+		Assert.assertTrue(Minimatch.minimatch("a/.b/c/d", "a/**/c/**/d", new Options().setDot(true)));
+		Assert.assertFalse(Minimatch.minimatch("a/b/../c/d", "a/**/c/**/d", new Options().setDot(true)));
+		Assert.assertTrue(Minimatch.minimatch("a/b/c/x/d", "a/**/c/**/d"));
+		Assert.assertFalse(Minimatch.minimatch("a/b/c/x/.d/e", "a/**/c/**"));
+	}
+
+	@Test
+	public void sameResultsAsRecursiveMatching() {
+		// separator runs collapse, so "" only appears as a trailing slash
+		String[] segments = { "a", "b", ".x" };
+		String[] items = { "a", "b", "**", "**", ".x" };
+		Random random = new Random(5);
+		for (int n = 0; n < 20000; n++) {
+			String[] file = new String[1 + random.nextInt(7)];
+			for (int i = 0; i < file.length; i++) {
+				file[i] = segments[random.nextInt(segments.length)];
+			}
+			if (file.length > 1 && random.nextInt(4) == 0) {
+				file[file.length - 1] = "";
+			}
+			String[] pattern = new String[1 + random.nextInt(5)];
+			for (int i = 0; i < pattern.length; i++) {
+				pattern[i] = items[random.nextInt(items.length)];
+			}
+			String path = join(file);
+			String glob = join(pattern);
+			for (int d = 0; d < 2; d++) {
+				boolean dot = d == 1;
+				Minimatch mm = new Minimatch(glob, new Options().setDot(dot));
+				for (int p = 0; p < 2; p++) {
+					boolean partial = p == 1;
+					Assert.assertEquals(glob + " " + path + " dot=" + dot + " partial=" + partial,
+							matchOne(file, 0, pattern, 0, dot, partial), mm.match(path, partial));
+				}
+			}
+		}
+	}
+
+	private static String join(String[] parts) {
+		StringBuilder s = new StringBuilder();
+		for (int i = 0; i < parts.length; i++) {
+			if (i > 0) {
+				s.append('/');
+			}
+			s.append(parts[i]);
+		}
+		return s.toString();
+	}
+
+	private static boolean isDot(String segment, boolean dot) {
+		return ".".equals(segment) || "..".equals(segment)
+				|| (!dot && segment.startsWith("."));
+	}
+
+	// the plain recursive algorithm of minimatch.js, for literal segments and **
+	private static boolean matchOne(String[] file, int fi, String[] pattern, int pi, boolean dot,
+			boolean partial) {
+		for (; fi < file.length && pi < pattern.length; fi++, pi++) {
+			if ("**".equals(pattern[pi])) {
+				if (pi + 1 == pattern.length) {
+					for (; fi < file.length; fi++) {
+						if (isDot(file[fi], dot)) {
+							return false;
+						}
+					}
+					return true;
+				}
+				int fr = fi;
+				while (fr < file.length) {
+					if (matchOne(file, fr, pattern, pi + 1, dot, partial)) {
+						return true;
+					}
+					if (isDot(file[fr], dot)) {
+						break;
+					}
+					fr++;
+				}
+				return partial && fr == file.length;
+			}
+			if (!pattern[pi].equals(file[fi])) {
+				return false;
+			}
+		}
+		if (fi == file.length && pi == pattern.length) {
+			return true;
+		} else if (fi == file.length) {
+			return partial;
+		}
+		return fi == file.length - 1 && file[fi].length() == 0;
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.glob.Glob;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SuppressWarnings("nls")
+public class GlobTest {
+
+	private static final String[] FILES = { "a.txt", "b.js", ".hidden/c.js",
+			"src/main/java/A.java", "src/main/java/b/B.java",
+			"src/main/resources/a.properties", "src/test/java/ATest.java",
+			"lib/x/y/z.js", "lib/x/.y/z.js", "lib/a.js", "docs/" };
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	@Before
+	public void createFiles() throws IOException {
+		root = folder.getRoot().toPath();
+		for (String file : FILES) {
+			Path path = root.resolve(file);
+			if (file.endsWith("/")) {
+				Files.createDirectories(path);
+			} else {
+				Files.createDirectories(path.getParent());
+				Files.createFile(path);
+			}
+		}
+	}
+
+	@Test
+	public void walk() throws IOException {
+		// Given
+		String pattern = "src/**/*.java";
+		// when
+		List<String> files = walk(pattern, null);
+		// then
+		Assert.assertEquals("[src/main/java/A.java, src/main/java/b/B.java, src/test/java/ATest.java]",
+				files.toString());
+	}
+
+	@Test
+	public void sameResultsAsMinimatch() throws IOException {
+		String[] patterns = { "*", "**", "**/*.js", "lib/**", "lib/*/y/*", "*/",
+				"src/main/*/", "src/{main,test}/**", "**/.hidden/*", "+(lib|docs)/**",
+				"src/main/java/A.java", "nothing/**", "!**/*.js", "**/z.js" };
+		for (Options options : new Options[] { new Options(), new Options().setDot(true) }) {
+			for (String pattern : patterns) {
+				Assert.assertEquals(pattern, all(pattern, options), walk(pattern, options));
+			}
+		}
+	}
+
+	@Test
+	public void literalPrefix() {
+		Assert.assertEquals("src/main", new Minimatch("src/main/**/*.java").getLiteralPrefix());
+		Assert.assertEquals("src", new Minimatch("src/*").getLiteralPrefix());
+		Assert.assertEquals("", new Minimatch("*.js").getLiteralPrefix());
+		Assert.assertEquals("", new Minimatch("a").getLiteralPrefix());
+		Assert.assertEquals("", new Minimatch("!src/*").getLiteralPrefix());
+		Assert.assertEquals("/", new Minimatch("/*").getLiteralPrefix());
+		Assert.assertEquals("/abs", new Minimatch("/abs/*").getLiteralPrefix());
+	}
+
+	@Test
+	public void lazy() throws IOException {
+		// Given
+		Glob glob = Glob.walk(root, "**");
+		Iterator<Path> iterator = glob.iterator();
+		// when
+		Path first = iterator.next();
+		glob.close();
+		// then
+		Assert.assertNotNull(first);
+		Assert.assertFalse(iterator.hasNext());
+	}
+
+	@Test
+	public void missingPrefix() throws IOException {
+		Assert.assertEquals(Collections.emptyList(), walk("missing/dir/*", null));
+	}
+
+	private List<String> walk(String pattern, Options options) throws IOException {
+		List<String> files = new ArrayList<String>();
+		try (Glob glob = Glob.walk(root, pattern, options)) {
+			for (Path path : glob) {
+				files.add(relative(path));
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	// every file and directory of the tree, filtered with Minimatch
+	private List<String> all(String pattern, Options options) throws IOException {
+		Minimatch mm = new Minimatch(pattern, options);
+		List<String> files = new ArrayList<String>();
+		collect(root.toFile(), mm, files);
+		Collections.sort(files);
+		return files;
+	}
+
+	private void collect(File dir, Minimatch mm, List<String> files) {
+		for (File file : dir.listFiles()) {
+			String path = relative(file.toPath());
+			if (mm.match(path) || (file.isDirectory() && mm.match(path + "/"))) {
+				files.add(path);
+			}
+			if (file.isDirectory()) {
+				collect(file, mm, files);
+			}
+		}
+	}
+
+	private String relative(Path path) {
+		return root.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+}
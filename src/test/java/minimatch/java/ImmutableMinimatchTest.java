@@ -0,0 +1,128 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the option snapshots and the sharing of a compiled
+ * {@link Minimatch} between threads.
+ */
+@SuppressWarnings("nls")
+public class ImmutableMinimatchTest {
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void defaultIsFrozen() {
+		Options.DEFAULT.setDot(true);
+	}
+
+	@Test
+	public void snapshot() {
+		// Given
+		Options options = new Options().setDot(true);
+		// when
+		Options snapshot = options.snapshot();
+		options.setNocase(true);
+		// then
+		Assert.assertTrue(snapshot.isFrozen());
+		Assert.assertFalse(options.isFrozen());
+		Assert.assertTrue(snapshot.isDot());
+		Assert.assertFalse(snapshot.isNocase());
+		Assert.assertSame(snapshot, snapshot.snapshot());
+		try {
+			snapshot.setMaxBraceExpansions(10);
+			Assert.fail();
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void modifiableCopy() {
+		// Given
+		Options copy = new Options(Options.DEFAULT);
+		// when
+		copy.setDot(true);
+		// then
+		Assert.assertFalse(copy.isFrozen());
+		Assert.assertTrue(copy.isDot());
+		Assert.assertFalse(Options.DEFAULT.isDot());
+	}
+
+	@Test
+	public void optionsChangedAfterCompilation() {
+		// Given
+		Options options = new Options();
+		Minimatch mm = new Minimatch("*.js", options);
+		// when
+		options.setDot(true);
+		// then
+		Assert.assertFalse(mm.match(".a.js"));
+		Assert.assertTrue(new Minimatch("*.js", options).match(".a.js"));
+	}
+
+	@Test
+	public void sharedBetweenThreads() throws Exception {
+		// Given
+		final Minimatch mm = new Minimatch("{src,lib}/**/*.{js,ts}");
+		final String[] paths = { "src/a.js", "lib/b/c.ts", "src/.a.js",
+				"test/a.js", "lib/a/b/c/d/e/f.ts", "lib/a.java" };
+		final boolean[] expected = { true, true, false, false, true, false };
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				results.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 2000; i++) {
+							int p = i % paths.length;
+							if (mm.match(paths[p]) != expected[p]) {
+								return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			// then
+			for (Future<Boolean> result : results) {
+				Assert.assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.PatternSet;
+import minimatch.internal.parser.LazyItem;
+import minimatch.internal.parser.LiteralItem;
+import minimatch.internal.parser.ParseItem;
+import minimatch.isaacs.Patterns;
+import minimatch.isaacs.Patterns.Case;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the lazy option, which parses the magic segments when they are
+ * first matched.
+ */
+@SuppressWarnings("nls")
+public class LazyItemTest {
+
+	@Test
+	public void sameResultsAsCorpus() {
+		for (Case c : Patterns.corpus()) {
+			// Given
+			Minimatch eager = new Minimatch(c.pattern, c.options);
+			// when
+			Minimatch lazy = new Minimatch(c.pattern, new Options(c.options).setLazy(true));
+			// then
+			for (String file : c.files) {
+				Assert.assertEquals(c.pattern + " " + file, eager.match(file), lazy.match(file));
+			}
+			Assert.assertEquals(c.pattern, eager.toRegex(), lazy.toRegex());
+		}
+	}
+
+	@Test
+	public void parsedOnce() {
+		// Given
+		final AtomicInteger count = new AtomicInteger();
+		Function<String, ParseItem> compiler = new Function<String, ParseItem>() {
+			@Override
+			public ParseItem apply(String glob) {
+				count.incrementAndGet();
+				return new LiteralItem(glob);
+			}
+		};
+		LazyItem item = new LazyItem("a", compiler);
+		Assert.assertEquals(0, count.get());
+		// when
+		boolean matches = item.match("a", Options.DEFAULT);
+		// then
+		Assert.assertTrue(matches);
+		Assert.assertFalse(item.match("b", Options.DEFAULT));
+		Assert.assertEquals(1, count.get());
+		Assert.assertEquals(item, new LazyItem("a", compiler));
+		Assert.assertNotEquals(item, new LazyItem("a", Function.<ParseItem> identity().compose(compiler)));
+	}
+
+	@Test
+	public void concurrentFirstMatches() throws Exception {
+		// Given
+		final Minimatch mm = new Minimatch("{src,lib}/**/*.@(js|ts)",
+				new Options().setLazy(true));
+		final List<String> files = Arrays.asList("src/a.js", "lib/b/c.ts",
+				"src/a.css", "test/a.js");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(new Callable<List<String>>() {
+					@Override
+					public List<String> call() {
+						return mm.filter(files);
+					}
+				}));
+			}
+			// then
+			for (Future<List<String>> result : results) {
+				Assert.assertEquals("[src/a.js, lib/b/c.ts]", result.get().toString());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void patternSet() throws IOException {
+		// Given
+		List<String> patterns = Arrays.asList("*.js", "lib/**", "!lib/*.js",
+				"{a,b}/+(x|y)", "src/{main,test}/*.java");
+		List<String> files = Arrays.asList("a.js", "lib/a.js", "a/xy", "b/z",
+				"src/main/A.java", "src/site/A.java");
+		PatternSet eager = new PatternSet(patterns);
+		PatternSet lazy = new PatternSet(patterns, new Options().setLazy(true));
+		// when
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		lazy.writeTo(out);
+		PatternSet read = PatternSet.read(ByteBuffer.wrap(out.toByteArray()));
+		// then
+		for (String file : files) {
+			Assert.assertEquals(file, eager.match(file), lazy.match(file));
+			Assert.assertEquals(file, eager.match(file), read.match(file));
+		}
+	}
+}
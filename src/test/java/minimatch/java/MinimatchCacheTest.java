@@ -0,0 +1,141 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import minimatch.Minimatch;
+import minimatch.MinimatchCache;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MinimatchCacheTest {
+
+	@Test
+	public void hit() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(10);
+		// when
+		Minimatch first = cache.get("*.js", new Options());
+		Minimatch second = cache.get("*.js", new Options());
+		// then
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void emptyPattern() {
+		Assert.assertTrue(Minimatch.minimatch("", ""));
+		Assert.assertFalse(Minimatch.minimatch("a", ""));
+	}
+
+	@Test
+	public void optionsArePartOfTheKey() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(10);
+		// when
+		Minimatch noDot = cache.get("*", new Options());
+		Minimatch dot = cache.get("*", new Options().setDot(true));
+		// then
+		Assert.assertNotSame(noDot, dot);
+		Assert.assertFalse(noDot.match(".a"));
+		Assert.assertTrue(dot.match(".a"));
+		Assert.assertEquals(2, cache.getMissCount());
+	}
+
+	@Test
+	public void optionsChangesDontLeakIntoCachedInstance() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(10);
+		Options options = new Options();
+		Minimatch mm = cache.get("*", options);
+		// when
+		options.setDot(true);
+		// then
+		Assert.assertFalse(mm.match(".a"));
+		Assert.assertTrue(cache.get("*", options).match(".a"));
+	}
+
+	@Test
+	public void eviction() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(2);
+		// when
+		Minimatch a = cache.get("a", null);
+		cache.get("b", null);
+		cache.get("a", null);
+		cache.get("c", null);
+		// then
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		// "b" was the least recently used
+		Assert.assertSame(a, cache.get("a", null));
+		cache.get("b", null);
+		Assert.assertEquals(4, cache.getMissCount());
+	}
+
+	@Test
+	public void disabled() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(0);
+		// when
+		Minimatch first = cache.get("*.js", null);
+		Minimatch second = cache.get("*.js", null);
+		// then
+		Assert.assertNotSame(first, second);
+		Assert.assertFalse(cache.isEnabled());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertTrue(second.match("a.js"));
+	}
+
+	@Test
+	public void shrink() {
+		// Given
+		MinimatchCache cache = new MinimatchCache(10);
+		cache.get("a", null);
+		cache.get("b", null);
+		cache.get("c", null);
+		// when
+		cache.setMaxSize(1);
+		// then
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(2, cache.getEvictionCount());
+	}
+
+	@Test
+	public void staticHelperUsesCache() {
+		// Given
+		MinimatchCache cache = Minimatch.getCache();
+		long hits = cache.getHitCount();
+		// when
+		Minimatch.minimatch("a.txt", "*.txt");
+		boolean result = Minimatch.minimatch("b.txt", "*.txt");
+		// then
+		Assert.assertTrue(result);
+		Assert.assertTrue(cache.getHitCount() > hits);
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import minimatch.Options;
+import minimatch.glob.Glob;
+import minimatch.glob.ParallelGlob;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SuppressWarnings("nls")
+public class ParallelGlobTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path root;
+
+	@Before
+	public void createFiles() throws IOException {
+		root = folder.getRoot().toPath();
+		for (int i = 0; i < 6; i++) {
+			for (int j = 0; j < 6; j++) {
+				Path dir = root.resolve("d" + i + "/e" + j);
+				Files.createDirectories(dir);
+				Files.createFile(dir.resolve("a" + j + ".js"));
+				Files.createFile(dir.resolve("b" + j + ".txt"));
+				Files.createDirectories(dir.resolve(".git"));
+				Files.createFile(dir.resolve(".git/c.js"));
+			}
+		}
+	}
+
+	@Test
+	public void sameResultsAsGlob() throws IOException {
+		String[] patterns = { "**", "**/*.js", "d1/**", "d*/e2/*", "*/", "d3/e4/a4.js",
+				"**/.git/*", "missing/**" };
+		for (Options options : new Options[] { new Options(), new Options().setDot(true) }) {
+			for (String pattern : patterns) {
+				List<Path> expected = new ArrayList<Path>();
+				try (Glob glob = Glob.walk(root, pattern, options)) {
+					for (Path path : glob) {
+						expected.add(path);
+					}
+				}
+				Collections.sort(expected);
+				List<Path> paths = new ParallelGlob(root, pattern, options).setParallelism(4)
+						.walk();
+				Collections.sort(paths);
+				Assert.assertEquals(pattern, expected, paths);
+			}
+		}
+	}
+
+	@Test
+	public void ordered() {
+		// Given
+		ParallelGlob glob = new ParallelGlob(root, "d[12]/**/*.txt").setOrdered(true);
+		// when
+		List<Path> first = glob.walk();
+		// then
+		Assert.assertEquals(12, first.size());
+		Assert.assertEquals(root.resolve("d1/e0/b0.txt"), first.get(0));
+		Assert.assertEquals(root.resolve("d2/e5/b5.txt"), first.get(11));
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(first, glob.setParallelism(1 + i).walk());
+		}
+	}
+
+	@Test(expected = CancellationException.class)
+	public void cancel() {
+		// Given
+		ParallelGlob glob = new ParallelGlob(root, "**");
+		// when
+		glob.cancel();
+		// then
+		glob.walk();
+	}
+
+	@Test
+	public void walkAfterCancel() {
+		// Given
+		ParallelGlob glob = new ParallelGlob(root, "d1/**/*.js").setOrdered(true);
+		glob.cancel();
+		try {
+			glob.walk();
+			Assert.fail("the first walk should be cancelled");
+		} catch (CancellationException e) {
+			// expected
+		}
+		// when
+		List<Path> paths = glob.walk();
+		// then
+		Assert.assertFalse(glob.isCancelled());
+		Assert.assertEquals(new ParallelGlob(root, "d1/**/*.js").setOrdered(true).walk(),
+				paths);
+		Assert.assertEquals(6, paths.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parallelism() {
+		new ParallelGlob(root, "**").setParallelism(0);
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import minimatch.Minimatch;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the regular expressions built by the parser, around the parts
+ * of the pattern which are rewritten once the segment is read: unclosed
+ * classes and pattern lists, and negative pattern lists.
+ */
+@SuppressWarnings("nls")
+public class ParserTest {
+
+	@Test
+	public void negativePatternList() {
+		assertRegex("(?!\\.)(?=.)[^/]*?\\.(?:(?!(?:js)$)[^/]*?)", "*.!(js)");
+		// the first negation looks ahead to the end of the segment
+		assertRegex("(?!\\.)(?=.)[^/]*?\\.(?:(?!(?:x)\\.(?:(?!(?:y|z)$)[^/]*?))[^/]*?)"
+				+ "\\.(?:(?!(?:y|z)$)[^/]*?)", "*.!(x).!(y|z)");
+		assertRegex(
+				"(?!\\.)(?=.)(?:[^/]*?\\.js|(?:(?!(?:[^/]*?\\.json)$)[^/]*?))*",
+				"*(*.js|!(*.json))");
+	}
+
+	@Test
+	public void unclosedPatternList() {
+		assertRegex("(?=.)\\+\\(a\\|b", "+(a|b");
+		assertRegex("(?=.)\\+\\(a\\|b\\|c", "+(a\\|b|c");
+	}
+
+	@Test
+	public void unclosedClass() {
+		Assert.assertEquals("^(?:\\[abc)$", new Minimatch("[abc").toRegex());
+		Assert.assertTrue(new Minimatch("[abc").match("[abc"));
+	}
+
+	@Test
+	public void longPattern() {
+		// Given
+		StringBuilder pattern = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			pattern.append("x?[ab]+(a|b)c\\*");
+		}
+		pattern.append("d");
+
+		// when
+		Minimatch mm = new Minimatch(pattern.toString());
+
+		// then
+		Assert.assertFalse(mm.match("x"));
+	}
+
+	private static void assertRegex(String expected, String pattern) {
+		Assert.assertEquals("^(?:" + expected + ")$",
+				new Minimatch(pattern).toRegex());
+	}
+}
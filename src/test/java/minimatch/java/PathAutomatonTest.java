@@ -0,0 +1,150 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the whole pattern compiled to one automaton over the path
+ * string, and for its regular expression.
+ */
+@SuppressWarnings("nls")
+public class PathAutomatonTest {
+
+	@Test
+	public void sameAsSegments() {
+		PathCorpus.assertSameAsMinimatch(new PathCorpus.Compiler() {
+			@Override
+			public PathCorpus.Matcher compile(List<String> patterns, Options options) {
+				final List<Minimatch> compiled = PathCorpus.compile(patterns,
+						new Options(options).setAutomaton(true));
+				return new PathCorpus.Matcher() {
+					@Override
+					public boolean match(int pattern, String path, boolean partial) {
+						return compiled.get(pattern).match(path, partial);
+					}
+				};
+			}
+		});
+	}
+
+	@Test
+	public void automaton() {
+		Options options = new Options().setAutomaton(true);
+		Assert.assertTrue(new Minimatch("src/**/*.java", options).hasAutomaton());
+		Assert.assertTrue(new Minimatch("{a,b}/[xy]?/*", options).hasAutomaton());
+		Assert.assertTrue(new Minimatch("a/*.js",
+				new Options(options).setMatchBase(true)).hasAutomaton());
+		// the segments are magic with nocase, their letters are folded like
+		// the regexp does
+		Minimatch nocase = new Minimatch("a/*.JS", new Options(options).setNocase(true));
+		Assert.assertTrue(nocase.hasAutomaton());
+		Assert.assertTrue(nocase.match("A/x.js"));
+		Assert.assertFalse(nocase.match("A/x.j"));
+		// off by default
+		Assert.assertFalse(new Minimatch("src/**/*.java").hasAutomaton());
+	}
+
+	@Test
+	public void noAutomaton() {
+		Options options = new Options().setAutomaton(true);
+		// extglob
+		Assert.assertFalse(new Minimatch("a/+(b|c)", options).hasAutomaton());
+		// matchBase on a single segment
+		Assert.assertFalse(new Minimatch("*.js",
+				new Options(options).setMatchBase(true)).hasAutomaton());
+		// more states than the cap: the chars after the last "a" are
+		// remembered
+		Minimatch mm = new Minimatch("*a??????????", options);
+		Assert.assertFalse(mm.hasAutomaton());
+		Assert.assertTrue(mm.match("xxa1234567890"));
+		Assert.assertTrue(new Minimatch("*a???", options).hasAutomaton());
+	}
+
+	@Test
+	public void unknownFallsBackToSegments() {
+		// Given
+		Minimatch mm = new Minimatch("*/c", new Options().setAutomaton(true));
+		Minimatch segments = new Minimatch("*/c");
+		String[] paths = { "a\nb/c", "a\rb/c", "a\u2028/c", "\uD83D\uDE00/c",
+				"\uD83D/c", "a/c\n", "a/\uDE00" };
+		for (String path : paths) {
+			// then
+			Assert.assertTrue(mm.hasAutomaton());
+			Assert.assertEquals(path, segments.match(path), mm.match(path));
+		}
+		Assert.assertTrue(mm.match("\uD83D\uDE00/c"));
+		Assert.assertFalse(mm.match("a/c\n"));
+	}
+
+	@Test
+	public void batch() {
+		// Given
+		Minimatch mm = new Minimatch("src/**/*.java",
+				new Options().setAutomaton(true));
+		String[] paths = { "src/a.java", "src/a/b.java", "src/.a/b.java",
+				"lib/a.java" };
+		boolean[] out = new boolean[paths.length];
+
+		// when
+		mm.matchAll(paths, out);
+
+		// then
+		Assert.assertEquals("[true, true, false, false]", Arrays.toString(out));
+	}
+
+	@Test
+	public void toRegex() {
+		String[] patterns = { "src/*/java/*.java", "src/main", "*.java",
+				"a/b*/c/*x*/d", "{src,lib}/main/*.js", "a/{b,c*,[xy]?}/d",
+				"a/*.@(js|ts)", "a/+(b|c)/d", "x/y/z", "a/**", "**/*.js",
+				"!a/*", "a.b/c+d", "?", "a/.*", "a/**/b", "**", "**/c/**" };
+		String[] paths = { "src/main/java/Foo.java", "src/main", "Foo.java",
+				"a/bc/c/xyz/d", "lib/main/a.js", "a/c/d", "a/xz/d", "a/a.ts",
+				"a/bb/d", "a/b/d", "x/y/z", "a/b", "a/b/c", "b/c.js", "c.js",
+				"a/.b/c.js", "a", "a.b/c+d", "axb/c+d", "a/.b", "a/b.js", "a/x/y/b",
+				"a/.x/b", "c/d", "a/c/d/e" };
+		for (String pattern : patterns) {
+			// Given
+			Minimatch mm = new Minimatch(pattern);
+			Pattern re = mm.makeRe();
+			for (String path : paths) {
+				// then
+				Assert.assertEquals(pattern + " " + path + " " + re,
+						mm.match(path), re.matcher(path).matches());
+			}
+		}
+		Assert.assertEquals("^(?:a\\/b\\.c)$", new Minimatch("a/b.c").toRegex());
+		Assert.assertEquals("^(?!^(?:a)$).*$", new Minimatch("!a").toRegex());
+		Assert.assertNull(new Minimatch("#a").toRegex());
+	}
+}
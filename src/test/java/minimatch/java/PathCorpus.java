@@ -0,0 +1,133 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+
+/**
+ * The patterns, paths and options on which the other ways of matching (the
+ * checks on the path string, the automaton, the pattern sets) are compared
+ * with the segment matching of {@link Minimatch}.
+ */
+@SuppressWarnings("nls")
+public class PathCorpus {
+
+	public static final List<String> PATTERNS = Arrays.asList(
+			"src/main/java/**/*Test.java", "src/*/java/*.java", "src/main",
+			"src/main/", "/src/*", "*.java", "a/b*/c/*x*/d", "a/**/b", "**",
+			"!src/main/**", "a/b/**", "{src,lib}/main/*.js", "src\\/main",
+			"a/{b,c*,[xy]?}/d", "a/*.@(js|ts)", "#src", "", "a/+(b|c)/d",
+			"**/*.min.js", "x/y/z", "**/.x/*", ".*/**", "a/**/**/b", "*/*",
+			"a/?/[!a-c]", "a/.*", "**/*", "*", "?", "a/**", "A/*.JAVA",
+			"[a-z]*.md", "**/node_modules/**/*.js", "!!a/*", "{a,b}/**/{c,d}",
+			"*.js", "lib/**", "!lib/*.js", "lib/a/*.js", "lib/a/b.js",
+			"lib/*/b.js", "lib/**/c", "**/*.txt", "a/**/b/**/c", "a/*", "a/b/",
+			"lib/a/**", "lib/?/*.txt", "LIB/**", ".x/*", "**/.x", "!**/*.md",
+			"*.@(js|ts)", "/abs/*", "a\\/b", "lib/[ab]/*", "lib/**/*.js");
+
+	public static final List<String> PATHS = Arrays.asList(
+			"src/main/java/a/FooTest.java", "src/main/java/FooTest.java",
+			"src/main/java/a/Foo.java", "src/test/java/a/FooTest.java",
+			"src//main/java/FooTest.java", "src/main", "src/main/",
+			"src/main//", "src", "src/mainx", "/src/main", "//src/main",
+			"Foo.java", "a/bc/c/xyz/d", "a/b/c/x/d", "a/b", "a/x/y/b", "a/b/",
+			"lib/main/a.js", "a/a.ts", "a/c/d", "a/cd/d", "a/xz/d", "a/bb/d",
+			"x/y/z", "x/y/z/", "x/y", "", "/", "a.min.js", "b/a.min.js",
+			"src\\main\\java\\a\\FooTest.java", "a/.x/b", "a/./b", "a/../b",
+			"a/.x/y", ".x/y", ".x/y/z", "..", ".", "a/.", "a/..", "a/.b",
+			"a/d/e", "a/b/c/b", "a//b", "a/b//", "A/FOO.JAVA", "A/foo.java",
+			"readme.md", "README.md", "\u00e9.md", "a/\u00e9/d", "a/b\nc/d",
+			"a\n", "\uD83D\uDE00/c", "x/node_modules/y/z.js",
+			"node_modules/a.js", "a/x/y/c", "b/d", "a", "a.js", "a/b/c",
+			"a/x/b/y/c", "lib", "lib/", "lib/a.js", "lib/a/b.js", "lib/a/c",
+			"lib/a/x.txt", "lib/b/b.js", "lib/.a/b.js", "lib/a/.b/c",
+			"LIB/A.JS", "x.txt", ".x/a", "y/.x", "docs/README.md", "/abs/a",
+			"/abs", "a/b/c/d/e/f/g.ts", "lib/c/d/e.js");
+
+	/**
+	 * Matches a path against one of the patterns, compiled with the same
+	 * options.
+	 */
+	public interface Matcher {
+
+		boolean match(int pattern, String path, boolean partial);
+	}
+
+	public interface Compiler {
+
+		Matcher compile(List<String> patterns, Options options);
+	}
+
+	public static Options[] options() {
+		return new Options[] { new Options(), new Options().setDot(true),
+				new Options().setNocase(true),
+				new Options().setAllowWindowsPaths(true),
+				new Options().setMatchBase(true),
+				new Options().setFlipNegate(true),
+				new Options().setNoglobstar(true),
+				new Options().setNonegate(true).setNocomment(true) };
+	}
+
+	public static List<Minimatch> compile(List<String> patterns,
+			Options options) {
+		List<Minimatch> compiled = new ArrayList<Minimatch>(patterns.size());
+		for (String pattern : patterns) {
+			compiled.add(new Minimatch(pattern, options));
+		}
+		return compiled;
+	}
+
+	/**
+	 * Checks that the patterns compiled by the given compiler match the paths
+	 * like {@link Minimatch#match(String, boolean)}, with every options of
+	 * {@link #options()}.
+	 */
+	public static void assertSameAsMinimatch(Compiler compiler) {
+		for (Options options : options()) {
+			// Given
+			Matcher matcher = compiler.compile(PATTERNS, options);
+			for (int i = 0; i < PATTERNS.size(); i++) {
+				String pattern = PATTERNS.get(i);
+				Minimatch expected = new Minimatch(pattern, options);
+				for (String path : PATHS) {
+					for (int p = 0; p < 2; p++) {
+						boolean partial = p == 1;
+						// then
+						Assert.assertEquals(pattern + " " + path + " partial="
+								+ partial + " " + options,
+								expected.match(path, partial),
+								matcher.match(i, path, partial));
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Arrays;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.PathAdapter;
+import minimatch.internal.adapters.DefaultPathAdapter;
+import minimatch.internal.adapters.PathSegments;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PathSegmentsTest {
+
+	private static final String[] PATHS = { "", "/", "//", "a", "/a", "a/",
+			"a//b", "/a/b/", "a\\b", "a\\\\b/c", "\\a", "a/\\b", "./a/../b",
+			"a/b/c/d/e/f/g/h/i/j/k/l/m/n/o/p/q/r" };
+
+	@Test
+	public void sameSegmentsAsRegExpSplit() {
+		for (String path : PATHS) {
+			assertSegments(path, false);
+			assertSegments(path, true);
+		}
+	}
+
+	@Test
+	public void reset() {
+		// Given
+		PathSegments segments = new PathSegments();
+		segments.reset("a/b/c/d", false);
+		// when
+		segments.reset("x/y", false);
+		// then
+		Assert.assertEquals(2, segments.size());
+		Assert.assertEquals("y", segments.get(1));
+		Assert.assertEquals(2, segments.getStart(1));
+		Assert.assertEquals(3, segments.getEnd(1));
+	}
+
+	@Test
+	public void windowsPaths() {
+		// Given
+		Options options = new Options().setAllowWindowsPaths(true);
+		// when
+		boolean result = Minimatch.minimatch("src\\main\\Foo.java",
+				"src/**/*.java", options);
+		// then
+		Assert.assertTrue(result);
+		Assert.assertFalse(Minimatch.minimatch("src\\main\\Foo.java",
+				"src/**/*.java"));
+	}
+
+	@Test
+	public void customPathAdapter() {
+		// Given
+		Minimatch mm = new Minimatch("a/*/c");
+		PathAdapter<String[]> adapter = new PathAdapter<String[]>() {
+			@Override
+			public List<String> toArray(String[] path, Options options) {
+				return Arrays.asList(path);
+			}
+		};
+		// when
+		boolean result = mm.match(new String[] { "a", "b", "c" }, adapter);
+		// then
+		Assert.assertTrue(result);
+		Assert.assertFalse(mm.match(new String[] { "a", "b", "d" }, adapter));
+	}
+
+	private static void assertSegments(String path, boolean windows) {
+		String p = windows ? path.replace('\\', '/') : path;
+		List<String> expected = Arrays.asList(p.split("/+", Integer.MAX_VALUE));
+		List<String> actual = DefaultPathAdapter.INSTANCE.toArray(path,
+				new Options().setAllowWindowsPaths(windows));
+		Assert.assertEquals(path, expected, actual);
+	}
+}
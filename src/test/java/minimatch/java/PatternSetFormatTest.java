@@ -0,0 +1,192 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.PatternSet;
+import minimatch.isaacs.Patterns;
+import minimatch.isaacs.Patterns.Case;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the binary format of the compiled pattern sets: a set read back
+ * must match like the one which was written.
+ */
+@SuppressWarnings("nls")
+public class PatternSetFormatTest {
+
+	private static final List<String> PATTERNS = Arrays.asList("*.js",
+			"lib/**", "!lib/*.js", "#comment", "a/{b,c}/d", "{a,b}/**/*.{js,ts}",
+			"*.@(js|ts)", "*test*", "foo*", "a?[bc][!d]", "[[:upper:]]*",
+			"+(a|b)*", "*.!(js)", "a/{x,y*,*z}/b", "**/.x", "a\\*b");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void sameResultsAsCorpus() throws IOException {
+		// Given
+		Map<String, List<Case>> byOptions = new LinkedHashMap<String, List<Case>>();
+		Map<String, Options> options = new LinkedHashMap<String, Options>();
+		Set<String> files = new LinkedHashSet<String>();
+		for (Case c : Patterns.corpus()) {
+			String key = c.options.toString();
+			if (!byOptions.containsKey(key)) {
+				byOptions.put(key, new ArrayList<Case>());
+				options.put(key, c.options);
+			}
+			byOptions.get(key).add(c);
+			files.addAll(c.files);
+		}
+		for (String key : byOptions.keySet()) {
+			List<String> patterns = new ArrayList<String>();
+			for (Case c : byOptions.get(key)) {
+				patterns.add(c.pattern);
+			}
+			PatternSet set = new PatternSet(patterns, options.get(key));
+			// when
+			PatternSet read = PatternSet.read(ByteBuffer.wrap(write(set)));
+			// then
+			assertSameResults(set, read, files);
+		}
+	}
+
+	@Test
+	public void sameResults() throws IOException {
+		List<String> files = Arrays.asList("a.js", "lib/a.js", "lib/a/b.js",
+				"a/b/d", "a/c/d", "b/x/y.ts", "my.test.txt", "foo", "foo.js",
+				"acbe", "abcd", "Readme", "aab.js", "x.ts", "a/y1/b", "a/0z/b",
+				"a/.x", "a*b", "axb", "A.JS");
+		Options[] options = { new Options(), new Options().setNocase(true),
+				new Options().setDot(true).setMatchBase(true),
+				new Options().setAutomaton(true), new Options().setNonegate(true) };
+		for (Options o : options) {
+			// Given
+			PatternSet set = new PatternSet(PATTERNS, o);
+			// when
+			PatternSet read = PatternSet.read(ByteBuffer.wrap(write(set)));
+			// then
+			Assert.assertEquals(o.toString(), read.getOptions().toString());
+			assertSameResults(set, read, files);
+		}
+	}
+
+	@Test
+	public void load() throws IOException {
+		// Given
+		PatternSet set = new PatternSet(PATTERNS);
+		Path file = folder.newFile("patterns.bin").toPath();
+		OutputStream out = Files.newOutputStream(file);
+		try {
+			set.writeTo(out);
+		} finally {
+			out.close();
+		}
+		// when
+		PatternSet loaded = PatternSet.load(file);
+		// then
+		Assert.assertEquals(set.toString(), loaded.toString());
+		Assert.assertEquals("{1}", loaded.match("lib/a.js").toString());
+		Assert.assertEquals("{2, 13}", loaded.match("a/y1/b").toString());
+	}
+
+	@Test
+	public void unsupportedVersion() throws IOException {
+		// Given
+		byte[] bytes = write(new PatternSet(PATTERNS));
+		bytes[5]++;
+		try {
+			// when
+			PatternSet.read(ByteBuffer.wrap(bytes));
+			Assert.fail();
+		} catch (IOException e) {
+			// then
+			Assert.assertTrue(e.getMessage(), e.getMessage().startsWith(
+					"Unsupported compiled pattern set version"));
+		}
+	}
+
+	@Test
+	public void invalid() throws IOException {
+		byte[] bytes = write(new PatternSet(PATTERNS));
+		try {
+			PatternSet.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2)));
+			Assert.fail();
+		} catch (EOFException e) {
+			// truncated
+		} catch (IOException e) {
+			// a length which goes past the end
+		}
+		try {
+			PatternSet.read(ByteBuffer.wrap("*.js\n*.ts\n".getBytes("UTF-8")));
+			Assert.fail();
+		} catch (IOException e) {
+			Assert.assertEquals("Not a compiled pattern set", e.getMessage());
+		}
+	}
+
+	private static byte[] write(PatternSet set) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		set.writeTo(out);
+		return out.toByteArray();
+	}
+
+	private static void assertSameResults(PatternSet expected, PatternSet actual,
+			Iterable<String> files) {
+		Assert.assertEquals(expected.toString(), actual.toString());
+		for (int i = 0; i < expected.size(); i++) {
+			Minimatch mm = expected.getMinimatch(i);
+			Minimatch read = actual.getMinimatch(i);
+			Assert.assertEquals(mm.toRegex(), read.toRegex());
+			Assert.assertEquals(mm.hasAutomaton(), read.hasAutomaton());
+			for (String file : files) {
+				Assert.assertEquals(expected.getPattern(i) + " " + file,
+						mm.match(file), read.match(file));
+			}
+		}
+		for (String file : files) {
+			Assert.assertEquals(file, expected.match(file), actual.match(file));
+		}
+	}
+}
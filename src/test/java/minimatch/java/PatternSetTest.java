@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import minimatch.Options;
+import minimatch.PatternSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class PatternSetTest {
+
+	@Test
+	public void sameResultsAsMinimatch() {
+		PathCorpus.assertSameAsMinimatch(new PathCorpus.Compiler() {
+			@Override
+			public PathCorpus.Matcher compile(List<String> patterns, Options options) {
+				final PatternSet set = new PatternSet(patterns, options);
+				return new PathCorpus.Matcher() {
+					@Override
+					public boolean match(int pattern, String path, boolean partial) {
+						return set.match(path, partial).get(pattern);
+					}
+				};
+			}
+		});
+	}
+
+	@Test
+	public void match() {
+		// Given
+		PatternSet set = new PatternSet(Arrays.asList("*.js", "lib/**", "!lib/*.js"));
+		// when
+		BitSet matches = set.match("lib/a.js");
+		// then
+		Assert.assertEquals(3, set.size());
+		Assert.assertEquals("{1}", matches.toString());
+		Assert.assertEquals("{0, 2}", set.match("a.js").toString());
+	}
+
+	@Test
+	public void sharedPrefix() {
+		// Given
+		PatternSet set = new PatternSet(Arrays.asList("src/main/java/**/*.java",
+				"src/main/java/**/*.properties", "src/main/resources/**",
+				"src/test/**"));
+		// when
+		BitSet matches = set.match("src/main/java/a/b/C.java");
+		// then
+		Assert.assertEquals("{0}", matches.toString());
+		Assert.assertEquals("{2}", set.match("src/main/resources/x").toString());
+		Assert.assertEquals("{}", set.match("src/site/x").toString());
+	}
+
+	@Test
+	public void empty() {
+		// Given
+		PatternSet set = new PatternSet(Arrays.<String> asList());
+		// when
+		BitSet matches = set.match("a/b");
+		// then
+		Assert.assertTrue(matches.isEmpty());
+	}
+}
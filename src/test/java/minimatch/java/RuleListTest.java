@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Arrays;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.RuleList;
+import minimatch.RuleList.Rule;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+@SuppressWarnings("nls")
+public class RuleListTest {
+
+	private static final List<String> RULES = Arrays.asList("# build output",
+			"target/", "target/**", "*.log", "!important.log", "**/*.class",
+			"!lib/**/*.class", "lib/old/**", "docs/*.md", "!docs/README.md",
+			".git/**", "!**/.keep");
+
+	private static final List<String> FILES = Arrays.asList("a.log",
+			"important.log", "src/a.log", "target/a/b", "target/x.class",
+			"lib/a/b.class", "lib/old/b.class", "lib/old/x", "docs/a.md",
+			"docs/README.md", "docs/x/a.md", ".git/config", ".git/a/.keep",
+			"src/Main.java", "src/Main.class");
+
+	@Test
+	public void lastMatchWins() {
+		// Given
+		RuleList rules = new RuleList(Arrays.asList("*.log", "!important.log"));
+		// when
+		Rule rule = rules.decide("important.log");
+		// then
+		Assert.assertEquals(1, rule.getIndex());
+		Assert.assertTrue(rule.isNegate());
+		Assert.assertFalse(rules.match("important.log"));
+		Assert.assertTrue(rules.match("debug.log"));
+		Assert.assertNull(rules.decide("a.txt"));
+		Assert.assertFalse(rules.match("a.txt"));
+	}
+
+	@Test
+	public void sameResultsAsMinimatch() {
+		assertSameResults(new Options());
+		assertSameResults(new Options().setDot(true));
+		assertSameResults(new Options().setMatchBase(true));
+	}
+
+	@Test
+	public void forDirectory() {
+		// Given
+		RuleList rules = new RuleList(RULES);
+		// when
+		RuleList docs = rules.forDirectory("docs/");
+		// then
+		Assert.assertEquals("[5: **/*.class, 8: docs/*.md, 9: !docs/README.md, 11: !**/.keep]",
+				docs.getRules().toString());
+		Assert.assertSame(rules, rules.forDirectory(""));
+		Assert.assertEquals("[1: target/, 2: target/**, 5: **/*.class, 11: !**/.keep]",
+				rules.forDirectory("target").getRules().toString());
+	}
+
+	@Test
+	public void forDirectorySameResults() {
+		String[] dirs = { "src", "lib", "lib/old", "docs", ".git", "target", "a/b" };
+		for (Options options : new Options[] { new Options(), new Options().setDot(true),
+				new Options().setMatchBase(true) }) {
+			RuleList rules = new RuleList(RULES, options);
+			for (String dir : dirs) {
+				RuleList scoped = rules.forDirectory(dir);
+				for (String file : FILES) {
+					String path = dir + "/" + file;
+					Assert.assertEquals(path, rules.decide(path), scoped.decide(path));
+				}
+			}
+		}
+	}
+
+	private static void assertSameResults(Options options) {
+		RuleList rules = new RuleList(RULES, options);
+		for (String file : FILES) {
+			// evaluate every rule in order, the last hit wins
+			int expected = -1;
+			for (int i = 0; i < RULES.size(); i++) {
+				Minimatch mm = new Minimatch(RULES.get(i), new Options()
+						.setDot(options.isDot()).setMatchBase(options.isMatchBase())
+						.setFlipNegate(true));
+				if (mm.match(file)) {
+					expected = i;
+				}
+			}
+			Rule rule = rules.decide(file);
+			Assert.assertEquals(file, expected, rule == null ? -1 : rule.getIndex());
+		}
+	}
+}
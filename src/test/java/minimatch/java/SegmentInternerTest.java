@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.SegmentInterner;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the intern table of the parsed segments shared by the
+ * {@link Minimatch} instances.
+ */
+@SuppressWarnings("nls")
+public class SegmentInternerTest {
+
+	@Test
+	public void shared() {
+		// Given
+		SegmentInterner interner = Minimatch.getSegmentInterner();
+		new Minimatch("shared/**/*.jav?");
+		long hits = interner.getHitCount();
+		long misses = interner.getMissCount();
+		// when
+		Minimatch mm = new Minimatch("other/**/*.jav?");
+		// then
+		Assert.assertEquals(hits + 2, interner.getHitCount());
+		Assert.assertEquals(misses + 1, interner.getMissCount());
+		Assert.assertTrue(mm.match("other/a/b.java"));
+		Assert.assertFalse(mm.match("shared/a/b.java"));
+		Assert.assertTrue(interner.getDedupRatio() > 0);
+	}
+
+	@Test
+	public void parseOptions() {
+		// Given
+		SegmentInterner interner = Minimatch.getSegmentInterner();
+		new Minimatch("*.parse");
+		long misses = interner.getMissCount();
+		// when
+		Minimatch nocase = new Minimatch("*.parse", new Options().setNocase(true));
+		Minimatch flipNegate = new Minimatch("*.parse", new Options().setFlipNegate(true));
+		// then
+		Assert.assertEquals(misses + 1, interner.getMissCount());
+		Assert.assertTrue(nocase.match("A.PARSE"));
+		Assert.assertFalse(flipNegate.match("A.PARSE"));
+	}
+
+	@Test
+	public void disabled() {
+		// Given
+		SegmentInterner interner = Minimatch.getSegmentInterner();
+		int maxSize = interner.getMaxSize();
+		try {
+			interner.setMaxSize(0);
+			long hits = interner.getHitCount();
+			// when
+			new Minimatch("disabled/*.x");
+			new Minimatch("disabled/*.x");
+			// then
+			Assert.assertFalse(interner.isEnabled());
+			Assert.assertEquals(0, interner.size());
+			Assert.assertEquals(hits, interner.getHitCount());
+		} finally {
+			interner.setMaxSize(maxSize);
+		}
+	}
+
+	@Test
+	public void bounded() {
+		// Given
+		SegmentInterner interner = Minimatch.getSegmentInterner();
+		int maxSize = interner.getMaxSize();
+		try {
+			interner.setMaxSize(2);
+			long evictions = interner.getEvictionCount();
+			// when
+			new Minimatch("bounded/a*/b*/c*");
+			// then
+			Assert.assertEquals(2, interner.size());
+			Assert.assertTrue(interner.getEvictionCount() > evictions);
+		} finally {
+			interner.setMaxSize(maxSize);
+		}
+	}
+
+	@Test
+	public void collected() throws InterruptedException {
+		// Given
+		SegmentInterner interner = Minimatch.getSegmentInterner();
+		long collected = interner.getCollectedCount();
+		Minimatch mm = new Minimatch("collected-*");
+		Assert.assertTrue(mm.match("collected-a"));
+		// when
+		mm = null;
+		for (int i = 0; i < 50 && interner.getCollectedCount() == collected; i++) {
+			System.gc();
+			Thread.sleep(10);
+			interner.size();
+		}
+		// then
+		Assert.assertTrue(interner.getCollectedCount() > collected);
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import minimatch.Debugger;
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.internal.parser.ContainsItem;
+import minimatch.internal.parser.ExtensionSetItem;
+import minimatch.internal.parser.MagicItem;
+import minimatch.internal.parser.ParseItem;
+import minimatch.internal.parser.PrefixItem;
+import minimatch.internal.parser.SuffixItem;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the prefix, suffix, contains and extension set segments.
+ */
+public class SegmentItemsTest {
+
+	private static final char[] INPUT_CHARS = { 'a', 'j', 'J', 's', 't', 'e',
+			'.', 'x', 'T' };
+
+	@Test
+	public void suffix() {
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.java", SuffixItem.class);
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.js", SuffixItem.class);
+		assertSameAsRegExp("(?!(?:^|\\/)\\.{1,2}(?:$|\\/))(?=.)[^/]*?\\.js",
+				SuffixItem.class);
+	}
+
+	@Test
+	public void prefix() {
+		assertSameAsRegExp("(?=.)ja[^/]*?", PrefixItem.class);
+		assertSameAsRegExp("(?=.)\\.j[^/]*?", PrefixItem.class);
+	}
+
+	@Test
+	public void contains() {
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?te[^/]*?", ContainsItem.class);
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.[^/]*?", ContainsItem.class);
+	}
+
+	@Test
+	public void extensionSet() {
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.(?:js|ts)",
+				ExtensionSetItem.class);
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.(?:js|)",
+				ExtensionSetItem.class);
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.(?:js|ts)+", MagicItem.class);
+		assertSameAsRegExp("(?!\\.)(?=.)[^/]*?\\.(?:j\\.s|ts)", MagicItem.class);
+	}
+
+	@Test
+	public void parserCreatesSpecializedItems() {
+		// Given
+		final StringBuilder trace = new StringBuilder();
+		Options options = new Options().setDebugger(new Debugger() {
+			@Override
+			public void debug(String pattern, Object... arguments) {
+				trace.append(String.format(pattern, arguments)).append('\n');
+			}
+		});
+		// when
+		new Minimatch("src/*.java/foo*/*test*/*.@(js|ts)", options);
+		// then
+		Assert.assertTrue(trace.toString(), trace.toString().contains(
+				"[[Literal(\"src\"), Suffix(\".java\"), Prefix(\"foo\"), "
+						+ "Contains(\"test\"), ExtensionSet([js, ts])]]"));
+	}
+
+	@Test
+	public void match() {
+		Assert.assertTrue(Minimatch.minimatch("Foo.java", "*.java"));
+		Assert.assertFalse(Minimatch.minimatch(".java", "*.java"));
+		Assert.assertTrue(Minimatch.minimatch(".java", "*.java",
+				new Options().setDot(true)));
+		Assert.assertTrue(Minimatch.minimatch("Foo.JAVA", "*.java",
+				new Options().setNocase(true)));
+		Assert.assertTrue(Minimatch.minimatch("a.b.ts", "*.@(js|ts)"));
+		Assert.assertFalse(Minimatch.minimatch("a.tsx", "*.@(js|ts)"));
+		Assert.assertTrue(Minimatch.minimatch("FooTest.java", "*Test*"));
+		Assert.assertTrue(Minimatch.minimatch("foobar", "foo*"));
+		Assert.assertFalse(Minimatch.minimatch("fo", "foo*"));
+	}
+
+	private static void assertSameAsRegExp(String re,
+			Class<? extends ParseItem> expectedClass) {
+		Random random = new Random(re.hashCode());
+		for (boolean nocase : new boolean[] { false, true }) {
+			Options options = new Options().setNocase(nocase);
+			ParseItem item = MagicItem.create(re, options);
+			Assert.assertEquals(re, expectedClass, item.getClass());
+			Pattern pattern = Pattern.compile("^" + re + "$",
+					nocase ? Pattern.CASE_INSENSITIVE : 0);
+			for (int i = 0; i < 500; i++) {
+				String input = randomInput(random);
+				Assert.assertEquals("/" + re + "/ " + input, pattern.matcher(
+						input).matches(), item.match(input, options));
+			}
+		}
+	}
+
+	private static String randomInput(Random random) {
+		int length = random.nextInt(7);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			input.append(INPUT_CHARS[random.nextInt(INPUT_CHARS.length)]);
+		}
+		return input.toString();
+	}
+}
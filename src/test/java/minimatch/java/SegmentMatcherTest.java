@@ -0,0 +1,111 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+import minimatch.internal.parser.SegmentMatcher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that the regex-free {@link SegmentMatcher} agrees with the regular
+ * expression built by the parser.
+ */
+public class SegmentMatcherTest {
+
+	private static final String[] PREFIXES = { "",
+			"(?!\\.)(?=.)", "(?!(?:^|\\/)\\.{1,2}(?:$|\\/))(?=.)", "(?=.)" };
+
+	private static final String[] TOKENS = { "[^/]*?", "[^/]", "a", "b", "B",
+			"\\.", "\\*", "-", "[a-c]", "[^b]", "[\\]x]", "[.B]", "[-a]",
+			"[\u00e9-\u00f6]" };
+
+	private static final char[] INPUT_CHARS = { 'a', 'b', 'c', 'B', '.', '*',
+			'x', ']', '-', '\u00e9', '\u00d6', '\n' };
+
+	@Test
+	public void sameResultsAsRegExp() {
+		Random random = new Random(42);
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder re = new StringBuilder(
+					PREFIXES[random.nextInt(PREFIXES.length)]);
+			int tokens = 1 + random.nextInt(5);
+			for (int j = 0; j < tokens; j++) {
+				re.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			boolean nocase = random.nextBoolean();
+			SegmentMatcher matcher = SegmentMatcher.compile(re.toString(),
+					nocase);
+			Assert.assertNotNull(re.toString(), matcher);
+			Pattern pattern = Pattern.compile("^" + re + "$",
+					nocase ? Pattern.CASE_INSENSITIVE : 0);
+			for (int k = 0; k < 50; k++) {
+				String input = randomInput(random);
+				if (!matcher.accept(input, 0, input.length())) {
+					continue;
+				}
+				Assert.assertEquals("/" + re + "/ " + input, pattern
+						.matcher(input).matches(), matcher.matches(input, 0,
+						input.length()));
+			}
+		}
+	}
+
+	@Test
+	public void extglobIsNotCompiled() {
+		Assert.assertNull(SegmentMatcher.compile(
+				"(?!\\.)(?=.)[^/]*?\\.(?:js|css)+", false));
+	}
+
+	@Test
+	public void lineTerminatorsUseRegExp() {
+		// Given
+		Options options = new Options();
+		// when
+		boolean result = Minimatch.minimatch("\nfoo", "*foo", options);
+		// then
+		Assert.assertFalse(result);
+		Assert.assertTrue(Minimatch.minimatch("a\nfoo", "*foo", options));
+	}
+
+	@Test
+	public void surrogatePairsUseRegExp() {
+		Assert.assertTrue(Minimatch.minimatch("\ud83d\ude00", "?"));
+		Assert.assertTrue(Minimatch.minimatch("a\ud83d\ude00", "a[!b]"));
+	}
+
+	private static String randomInput(Random random) {
+		int length = random.nextInt(6);
+		StringBuilder input = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			input.append(INPUT_CHARS[random.nextInt(INPUT_CHARS.length)]);
+		}
+		return input.toString();
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Angelo
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package minimatch.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import minimatch.Minimatch;
+import minimatch.Options;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the batch matching of sorted paths, which reuses the results of
+ * the leading segments shared with the previous path.
+ */
+@SuppressWarnings("nls")
+public class SortedBatchTest {
+
+	private static final String[] PATTERNS = { "a/b/c/*.txt", "a/*/c/*",
+			"a/b/**/*.txt", "**/c/*.js", "a/{b,x}/c/[12].*", "!a/b/c/*.txt",
+			"a/b/c/", "a/b/c", "a/.b/c/*", "*.txt", "a/b/c/1.txt", "#a",
+			"a/b/*/*/*", "a/b/+(c|d)/*.@(txt|js)", "{a/b/**,x/y}" };
+
+	@Test
+	public void sameAsMatch() {
+		List<String> paths = listing();
+		Options[] options = { new Options(), new Options().setDot(true),
+				new Options().setMatchBase(true), new Options().setNocase(true),
+				new Options().setFlipNegate(true) };
+		for (String pattern : PATTERNS) {
+			for (Options option : options) {
+				assertSameAsMatch(new Minimatch(pattern, option), paths);
+			}
+		}
+	}
+
+	@Test
+	public void unsorted() {
+		// Given
+		List<String> paths = listing();
+		Collections.reverse(paths);
+		Collections.swap(paths, 3, paths.size() - 5);
+		for (String pattern : PATTERNS) {
+			assertSameAsMatch(new Minimatch(pattern), paths);
+		}
+	}
+
+	@Test
+	public void entriesSkippedAfterHit() {
+		// Given
+		Minimatch mm = new Minimatch("{*/x/1,[b]/x/*}");
+		String[] paths = { "c/x/9", "b/x/1", "b/x/2" };
+		boolean[] out = new boolean[paths.length];
+		// when
+		mm.matchAll(paths, out);
+		// then
+		Assert.assertEquals("[false, true, true]", Arrays.toString(out));
+		assertSameAsMatch(mm, Arrays.asList(paths));
+	}
+
+	private static void assertSameAsMatch(Minimatch mm, List<String> paths) {
+		// when
+		String[] array = paths.toArray(new String[paths.size()]);
+		boolean[] out = new boolean[array.length];
+		mm.matchAll(array, out);
+		List<String> filtered = mm.filter(paths);
+		// then
+		List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < array.length; i++) {
+			boolean match = mm.match(array[i]);
+			Assert.assertEquals(mm + " " + array[i], match, out[i]);
+			if (match) {
+				expected.add(array[i]);
+			}
+		}
+		Assert.assertEquals(expected, filtered);
+	}
+
+	private static List<String> listing() {
+		List<String> paths = new ArrayList<String>();
+		String[] dirs = { "a", "a/.b", "a/b", "a/b/c", "a/b/c/", "a/b/c/d",
+				"a/b/c/d/e", "a/b/d", "a/x/c", "A/B/C", "x/y" };
+		String[] files = { "1.txt", "2.js", ".3.txt", "4.TXT" };
+		for (String dir : dirs) {
+			paths.add(dir);
+			for (String file : files) {
+				paths.add(dir.endsWith("/") ? dir + file : dir + "/" + file);
+			}
+		}
+		paths.add("");
+		paths.add("/a/b/c/1.txt");
+		Collections.sort(paths);
+		return paths;
+	}
+}